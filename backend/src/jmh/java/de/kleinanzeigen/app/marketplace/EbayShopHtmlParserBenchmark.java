@@ -0,0 +1,47 @@
+package de.kleinanzeigen.app.marketplace;
+
+import de.kleinanzeigen.app.marketplace.http.FetchedPage;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * eBay shop page from bytes to items: the streaming parse against building the whole document first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EbayShopHtmlParserBenchmark {
+
+    private final EbayShopHtmlParser parser = new EbayShopHtmlParser();
+    private FetchedPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/fixtures/ebay-shop-results.html")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found: ebay-shop-results.html");
+            }
+            page = new FetchedPage("https://www.ebay.de/str/rebuy", 200, inputStream.readAllBytes(), "UTF-8");
+        }
+    }
+
+    @Benchmark
+    public List<SearchResultItem> streaming() throws IOException {
+        return parser.parse(page, "ebay_rebuy", "eBay Rebuy");
+    }
+
+    @Benchmark
+    public List<SearchResultItem> document() throws IOException {
+        return parser.parse(page.toDocument(), "ebay_rebuy", "eBay Rebuy");
+    }
+}
@@ -0,0 +1,64 @@
+package de.kleinanzeigen.app.marketplace;
+
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-listing cost of the single-pass extraction against the selector based one on a recorded search page
+ * with {@value #LISTINGS} listings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(KleinanzeigenHtmlParserBenchmark.LISTINGS)
+public class KleinanzeigenHtmlParserBenchmark {
+
+    static final int LISTINGS = 25;
+
+    private KleinanzeigenHtmlParser parser;
+    private SelectorKleinanzeigenHtmlParser reference;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        Clock clock = Clock.fixed(Instant.parse("2025-09-27T10:00:00Z"), ZoneId.of("Europe/Berlin"));
+        parser = new KleinanzeigenHtmlParser(clock);
+        reference = new SelectorKleinanzeigenHtmlParser(clock);
+        try (InputStream inputStream = getClass().getResourceAsStream("/fixtures/kleinanzeigen-search-page.html")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found: kleinanzeigen-search-page.html");
+            }
+            document = Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "https://www.kleinanzeigen.de");
+        }
+        if (parser.parse(document).size() != LISTINGS) {
+            throw new IllegalStateException("Fixture is expected to contain " + LISTINGS + " listings");
+        }
+    }
+
+    @Benchmark
+    public List<SearchResultItem> singlePass() {
+        return parser.parse(document);
+    }
+
+    @Benchmark
+    public List<SearchResultItem> selectors() {
+        return reference.parse(document);
+    }
+}
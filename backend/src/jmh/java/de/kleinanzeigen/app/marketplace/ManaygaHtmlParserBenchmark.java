@@ -0,0 +1,90 @@
+package de.kleinanzeigen.app.marketplace;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Events extraction on the recorded Manayga search page: the streaming parser against the former approach of
+ * copying the script string and reading it into a JsonNode tree. Run with {@code ./gradlew jmh}, the gc
+ * profiler reports the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ManaygaHtmlParserBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ManaygaHtmlParser parser;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = new ManaygaHtmlParser(objectMapper);
+        try (InputStream inputStream = getClass().getResourceAsStream("/fixtures/manayga-search-results.html")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found: manayga-search-results.html");
+            }
+            document = Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "https://manayga.de");
+        }
+    }
+
+    @Benchmark
+    public List<SearchResultItem> streaming() {
+        return parser.parse(document);
+    }
+
+    @Benchmark
+    public List<SearchResultItem> treeBaseline() throws IOException {
+        String scriptContent = document.getElementById("web-pixels-manager-setup").data();
+        String marker = "\"events\":\"";
+        int start = scriptContent.indexOf(marker) + marker.length();
+        StringBuilder json = new StringBuilder();
+        boolean escaped = false;
+        for (int i = start; i < scriptContent.length(); i++) {
+            char c = scriptContent.charAt(i);
+            if (escaped) {
+                json.append(c);
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                break;
+            } else {
+                json.append(c);
+            }
+        }
+
+        List<SearchResultItem> items = new ArrayList<>();
+        for (JsonNode event : objectMapper.readTree(json.toString())) {
+            if (event.isArray() && event.size() >= 2 && "search_submitted".equals(event.get(0).asText())) {
+                for (JsonNode variant : event.get(1).path("searchResult").path("productVariants")) {
+                    JsonNode product = variant.path("product");
+                    items.add(new SearchResultItem(product.path("id").asText(), product.path("title").asText(),
+                            "https://manayga.de" + product.path("url").asText(),
+                            BigDecimal.valueOf(variant.path("price").path("amount").asDouble()), "Manayga",
+                            Instant.now(), ManaygaClient.MARKETPLACE_ID));
+                }
+                break;
+            }
+        }
+        return items;
+    }
+}
@@ -0,0 +1,76 @@
+package de.kleinanzeigen.app.marketplace;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of {@link PriceParser} against the regex pipeline the Kleinanzeigen parser used before, over
+ * price labels as they appear on the marketplaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(PriceParserBenchmark.LABEL_COUNT)
+public class PriceParserBenchmark {
+
+    static final int LABEL_COUNT = 8;
+
+    private static final String[] LABELS = {
+            "1.200 € VB", "250,00 €", "Zu verschenken", "35 € VB",
+            "EUR 4,99", "EUR 1.234,50", "€4,50 EUR", "12.345,67 €"
+    };
+    private static final Pattern PRICE_PATTERN = Pattern.compile("([0-9\\s.\\u00A0]+[,][0-9]{2}|[0-9\\s.\\u00A0]+)");
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        for (String label : LABELS) {
+            blackhole.consume(PriceParser.parseCents(label));
+        }
+    }
+
+    @Benchmark
+    public void regexBaseline(Blackhole blackhole) {
+        for (String label : LABELS) {
+            blackhole.consume(regexPrice(label));
+        }
+    }
+
+    private static BigDecimal regexPrice(String raw) {
+        String normalized = Normalizer.normalize(raw, Normalizer.Form.NFKC).toLowerCase(Locale.GERMAN);
+        if (normalized.contains("verschenken")) {
+            return null;
+        }
+        String sanitized = normalized
+                .replace("vb", "")
+                .replaceAll("[^0-9,\\.\\s\\u00A0]", " ")
+                .replaceAll("\\s+", " ")
+                .trim();
+        Matcher matcher = PRICE_PATTERN.matcher(sanitized);
+        if (!matcher.find()) {
+            return null;
+        }
+        String numeric = matcher.group(1)
+                .replace("\u00A0", "")
+                .replace(" ", "")
+                .replace(".", "")
+                .replace(",", ".")
+                .trim();
+        try {
+            return numeric.isBlank() ? null : new BigDecimal(numeric);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
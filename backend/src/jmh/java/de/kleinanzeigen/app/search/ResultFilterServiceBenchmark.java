@@ -0,0 +1,64 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Price filtering over synthetic result lists. Roughly a tenth of the items has no price, the rest is spread
+ * between 0 and 500 EUR so that the profile's range keeps about 40 percent. {@code selectBatch} runs the same
+ * filter over the columnar form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResultFilterServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int itemCount;
+
+    private final ResultFilterService filterService = new ResultFilterService();
+    private CompiledResultFilter filter;
+    private List<SearchResultItem> items;
+    private ResultBatch batch;
+
+    @Setup
+    public void setUp() {
+        SearchProfile profile = SearchProfile.create("Benchmark", "dragon ball", null, List.of("kleinanzeigen"),
+                PriceRange.of(new BigDecimal("50"), new BigDecimal("250")), 30);
+        SplittableRandom random = new SplittableRandom(42);
+        Instant publishedAt = Instant.parse("2025-09-27T10:00:00Z");
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal price = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextLong(50_000), 2);
+            items.add(new SearchResultItem(Integer.toString(i), "Dragon Ball " + i, "https://example.org/" + i,
+                    price, "Berlin", publishedAt, "kleinanzeigen"));
+        }
+        batch = ResultBatch.of(items);
+        filter = CompiledResultFilter.of(profile);
+    }
+
+    @Benchmark
+    public List<SearchResultItem> applyFilters() {
+        return filterService.applyFilters(filter, items);
+    }
+
+    @Benchmark
+    public BitSet selectBatch() {
+        return filterService.select(filter, batch);
+    }
+}
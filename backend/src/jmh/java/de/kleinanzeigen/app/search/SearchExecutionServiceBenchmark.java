@@ -0,0 +1,96 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Overhead of a profile run without network: fan-out to stub marketplaces that answer immediately, merging,
+ * and filtering. The profile is not persisted, so the seen-item tracking is skipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SearchExecutionServiceBenchmark {
+
+    private static final List<String> MARKETPLACES = List.of("kleinanzeigen", "manayga", "ebay_rebuy");
+
+    @Param({"25", "250"})
+    public int itemsPerMarketplace;
+
+    private SearchExecutionService service;
+    private SearchProfile profile;
+
+    @Setup
+    public void setUp() {
+        List<MarketplaceClient> clients = new ArrayList<>();
+        for (String marketplaceId : MARKETPLACES) {
+            clients.add(new StubClient(marketplaceId, items(marketplaceId, itemsPerMarketplace)));
+        }
+        service = new SearchExecutionService(
+                null,
+                new MarketplaceClientRegistry(clients),
+                new ResultFilterService(),
+                new SearchExecutionProperties(Duration.ofSeconds(5), Map.of()),
+                new SeenItemTracker(new IncrementalSearchProperties(2048, Duration.ofDays(7))),
+                new MarketplaceQueryCoalescer(new MarketplaceMetrics(new SimpleMeterRegistry()), true),
+                new NearDuplicateDetector(new DeduplicationProperties(true, 3)),
+                new MarketplaceMetrics(new SimpleMeterRegistry()),
+                true);
+        profile = SearchProfile.create("Benchmark", "dragon ball", null, MARKETPLACES,
+                PriceRange.of(null, new BigDecimal("100")), 30);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public SearchResult execute() {
+        return service.execute(profile);
+    }
+
+    private static List<SearchResultItem> items(String marketplaceId, int count) {
+        Instant publishedAt = Instant.parse("2025-09-27T10:00:00Z");
+        List<SearchResultItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new SearchResultItem(marketplaceId + "-" + i, "Dragon Ball " + i,
+                    "https://example.org/" + marketplaceId + "/" + i, BigDecimal.valueOf(i % 200), "Berlin",
+                    publishedAt, marketplaceId));
+        }
+        return List.copyOf(items);
+    }
+
+    private record StubClient(String marketplaceId, List<SearchResultItem> items) implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            return items;
+        }
+    }
+}
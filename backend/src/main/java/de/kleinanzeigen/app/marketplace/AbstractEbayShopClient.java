@@ -0,0 +1,61 @@
+package de.kleinanzeigen.app.marketplace;
+
+import de.kleinanzeigen.app.marketplace.http.FetchedPage;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpClient;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+abstract class AbstractEbayShopClient implements MarketplaceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractEbayShopClient.class);
+
+    private final String marketplaceId;
+    private final String shopName;
+    private final String baseUrl;
+    private final EbayShopHtmlParser parser;
+    private final MarketplaceHttpClient httpClient;
+    private final MarketplaceMetrics metrics;
+
+    protected AbstractEbayShopClient(String marketplaceId, String shopName, String baseUrl,
+            EbayShopHtmlParser parser, MarketplaceHttpClient httpClient, MarketplaceMetrics metrics) {
+        this.marketplaceId = marketplaceId;
+        this.shopName = shopName;
+        this.baseUrl = baseUrl;
+        this.parser = parser;
+        this.httpClient = httpClient;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(String marketplaceId) {
+        return this.marketplaceId.equals(marketplaceId);
+    }
+
+    @Override
+    public List<SearchResultItem> search(SearchProfile profile) {
+        try {
+            String encodedQuery = URLEncoder.encode(profile.getQuery(), StandardCharsets.UTF_8);
+            String url = baseUrl + encodedQuery;
+
+            log.info("Fetching {} results for query: {}", shopName, profile.getQuery());
+
+            FetchedPage page = httpClient.fetch(marketplaceId, url);
+            long parseStart = System.nanoTime();
+            List<SearchResultItem> items = parser.parse(page, marketplaceId, shopName);
+            metrics.recordParse(marketplaceId, System.nanoTime() - parseStart, items.size());
+            return items;
+        } catch (IOException e) {
+            metrics.recordFailure(marketplaceId, e);
+            log.error("Failed to fetch results from {}", shopName, e);
+            return Collections.emptyList();
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package de.kleinanzeigen.app.marketplace;
 
+import de.kleinanzeigen.app.marketplace.http.FetchedPage;
 import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -17,30 +22,75 @@ public class EbayShopHtmlParser {
 
     private static final Logger log = LoggerFactory.getLogger(EbayShopHtmlParser.class);
 
-    public List<SearchResultItem> parse(Document document, String locationName) {
-        List<SearchResultItem> items = new ArrayList<>();
+    private static final String ANY_CONTAINER = "." + Layout.STANDARD.containerClass + ", ."
+            + Layout.SHOP_CARD.containerClass;
 
-        // Try standard search items
-        Elements standardItems = document.select(".s-item__wrapper");
-        for (Element element : standardItems) {
-            parseItem(element, items, ".s-item__title", ".s-item__link", ".s-item__price", locationName);
+    /**
+     * The layout is taken from the first item container, only the list holding it is read. Lists further down,
+     * like the results for fewer search terms, are left out.
+     */
+    public List<SearchResultItem> parse(Document document, String marketplaceId, String locationName) {
+        List<SearchResultItem> items = new ArrayList<>();
+        Element first = document.selectFirst(ANY_CONTAINER);
+        if (first == null) {
+            return items;
+        }
+        Layout layout = Layout.detect(first);
+        for (Element element : resultListOf(first).getElementsByClass(layout.containerClass)) {
+            parseItem(element, items, layout, marketplaceId, locationName);
         }
+        return items;
+    }
 
-        // Try shop card items (Shop view)
-        if (items.isEmpty()) {
-            Elements shopItems = document.select(".su-card-container");
-            for (Element element : shopItems) {
-                parseItem(element, items, ".s-card__title", ".s-card__link", ".s-card__price", locationName);
+    /**
+     * Streaming variant for fetched pages with the same result: every item container is parsed as soon as jsoup
+     * has closed it and is dropped from the tree afterwards, so only one card is held at a time. Reading stops
+     * when the list holding the containers ends.
+     */
+    public List<SearchResultItem> parse(FetchedPage page, String marketplaceId, String locationName)
+            throws IOException {
+        List<SearchResultItem> items = new ArrayList<>();
+        Layout layout = null;
+        Element resultList = null;
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser())) {
+            streamer.parse(page.openReader(), page.url());
+            Iterator<Element> elements = streamer.iterator();
+            while (elements.hasNext()) {
+                Element element = elements.next();
+                if (layout == null) {
+                    layout = Layout.detect(element);
+                    if (layout == null) {
+                        continue;
+                    }
+                    resultList = resultListOf(element);
+                }
+                if (element.hasClass(layout.containerClass)) {
+                    parseItem(element, items, layout, marketplaceId, locationName);
+                    element.remove();
+                } else if (element == resultList) {
+                    streamer.stop();
+                    break;
+                }
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
-
         return items;
     }
 
-    private void parseItem(Element element, List<SearchResultItem> items, String titleSelector, String linkSelector,
-            String priceSelector, String locationName) {
+    private static Element resultListOf(Element container) {
+        for (Element ancestor : container.parents()) {
+            if (ancestor.normalName().equals("ul") || ancestor.normalName().equals("ol")) {
+                return ancestor;
+            }
+        }
+        return container.parent();
+    }
+
+    private void parseItem(Element element, List<SearchResultItem> items, Layout layout, String marketplaceId,
+            String locationName) {
         try {
-            String title = element.select(titleSelector).text()
+            String title = element.select(layout.titleSelector).text()
                     .replace("Wird in neuem Fenster oder Tab geöffnet", "")
                     .trim();
 
@@ -49,8 +99,8 @@ public class EbayShopHtmlParser {
                 return;
             }
 
-            String url = element.select(linkSelector).attr("href");
-            String priceText = element.select(priceSelector).text();
+            String url = element.select(layout.linkSelector).attr("href");
+            String priceText = element.select(layout.priceSelector).text();
 
             // Extract ID from URL or generate one
             String id = extractIdFromUrl(url);
@@ -58,10 +108,10 @@ public class EbayShopHtmlParser {
                 id = url; // Fallback
             }
 
-            BigDecimal price = parsePrice(priceText);
+            BigDecimal price = PriceParser.toBigDecimal(PriceParser.parseCents(priceText));
 
             if (!url.isBlank()) {
-                items.add(new SearchResultItem(id, title, url, price, locationName, Instant.now()));
+                items.add(new SearchResultItem(id, title, url, price, locationName, Instant.now(), marketplaceId));
             }
         } catch (Exception e) {
             log.warn("Failed to parse eBay item", e);
@@ -88,22 +138,28 @@ public class EbayShopHtmlParser {
         return null;
     }
 
-    private BigDecimal parsePrice(String priceText) {
-        if (priceText == null || priceText.isBlank()) {
-            return null;
+    private enum Layout {
+        STANDARD("s-item__wrapper", ".s-item__title", ".s-item__link", ".s-item__price"),
+        SHOP_CARD("su-card-container", ".s-card__title", ".s-card__link", ".s-card__price");
+
+        private final String containerClass;
+        private final String titleSelector;
+        private final String linkSelector;
+        private final String priceSelector;
+
+        Layout(String containerClass, String titleSelector, String linkSelector, String priceSelector) {
+            this.containerClass = containerClass;
+            this.titleSelector = titleSelector;
+            this.linkSelector = linkSelector;
+            this.priceSelector = priceSelector;
         }
-        try {
-            // Format: "EUR 12,34" or "12,34 €" or "$20.00"
-            String cleaned = priceText.replaceAll("[^0-9,.]", "");
-            // If it has comma as decimal separator
-            if (cleaned.contains(",") && !cleaned.contains(".")) {
-                cleaned = cleaned.replace(",", ".");
-            } else if (cleaned.contains(",") && cleaned.contains(".")) {
-                // assume 1.234,56 -> 1234.56
-                cleaned = cleaned.replace(".", "").replace(",", ".");
+
+        static Layout detect(Element element) {
+            for (Layout layout : values()) {
+                if (element.hasClass(layout.containerClass)) {
+                    return layout;
+                }
             }
-            return new BigDecimal(cleaned);
-        } catch (Exception e) {
             return null;
         }
     }
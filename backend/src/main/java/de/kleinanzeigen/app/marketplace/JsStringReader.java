@@ -0,0 +1,79 @@
+package de.kleinanzeigen.app.marketplace;
+
+import java.io.Reader;
+
+/**
+ * Reads the value of a JavaScript string literal out of a larger source, starting right after the opening
+ * quote. Escapes are resolved while reading, so the literal is never copied into an intermediate string.
+ * The reader ends at the closing quote or at the end of the source.
+ */
+final class JsStringReader extends Reader {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final CharSequence source;
+    private int position;
+    private boolean ended;
+
+    JsStringReader(CharSequence source, int start) {
+        this.source = source;
+        this.position = start;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+        int count = 0;
+        while (count < length && !ended) {
+            if (position >= source.length()) {
+                ended = true;
+                break;
+            }
+            char c = source.charAt(position++);
+            if (c == '"') {
+                ended = true;
+                break;
+            }
+            if (c == '\\' && position < source.length()) {
+                c = unescape(source.charAt(position++));
+            }
+            buffer[offset + count++] = c;
+        }
+        return count == 0 && ended ? -1 : count;
+    }
+
+    private char unescape(char escaped) {
+        return switch (escaped) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'u' -> hex(4);
+            case 'x' -> hex(2);
+            // \" \\ \/ \' and unknown escapes stand for the character itself
+            default -> escaped;
+        };
+    }
+
+    private char hex(int digits) {
+        if (position + digits > source.length()) {
+            position = source.length();
+            return REPLACEMENT;
+        }
+        int value = 0;
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(source.charAt(position + i), 16);
+            if (digit < 0) {
+                return REPLACEMENT;
+            }
+            value = value * 16 + digit;
+        }
+        position += digits;
+        return (char) value;
+    }
+
+    @Override
+    public void close() {
+        ended = true;
+    }
+}
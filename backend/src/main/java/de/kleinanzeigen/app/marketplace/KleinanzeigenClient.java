@@ -1,19 +1,16 @@
 package de.kleinanzeigen.app.marketplace;
 
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpClient;
 import de.kleinanzeigen.app.search.SearchResultItem;
 import de.kleinanzeigen.app.searchprofile.PriceRange;
 import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import de.kleinanzeigen.app.shared.TextNormalizer;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.Normalizer;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.List;
-import java.util.Locale;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,16 +22,16 @@ public class KleinanzeigenClient implements MarketplaceClient {
     private static final Logger log = LoggerFactory.getLogger(KleinanzeigenClient.class);
     public static final String MARKETPLACE_ID = "kleinanzeigen";
     private static final String BASE_URL = "https://www.kleinanzeigen.de";
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
-            + "(KHTML, like Gecko) Chrome/129.0 Safari/537.36";
-    private static final Duration MIN_REQUEST_INTERVAL = Duration.ofSeconds(3);
 
     private final KleinanzeigenHtmlParser parser;
-    private final Object throttleLock = new Object();
-    private Instant lastRequest = Instant.EPOCH;
+    private final MarketplaceHttpClient httpClient;
+    private final MarketplaceMetrics metrics;
 
-    public KleinanzeigenClient(KleinanzeigenHtmlParser parser) {
+    public KleinanzeigenClient(KleinanzeigenHtmlParser parser, MarketplaceHttpClient httpClient,
+            MarketplaceMetrics metrics) {
         this.parser = parser;
+        this.httpClient = httpClient;
+        this.metrics = metrics;
     }
 
     @Override
@@ -44,12 +41,13 @@ public class KleinanzeigenClient implements MarketplaceClient {
 
     @Override
     public List<SearchResultItem> search(SearchProfile profile) {
-        throttle();
         String requestUrl = buildSearchUrl(profile);
         try {
             log.debug("Fetching Kleinanzeigen listing for profile {} from {}", profile.getId(), requestUrl);
-            Document document = loadDocument(requestUrl);
+            Document document = httpClient.fetchDocument(MARKETPLACE_ID, requestUrl);
+            long parseStart = System.nanoTime();
             List<SearchResultItem> items = parser.parse(document);
+            metrics.recordParse(MARKETPLACE_ID, System.nanoTime() - parseStart, items.size());
             log.debug("Fetched {} items for profile {}", items.size(), profile.getId());
             return items;
         } catch (IOException e) {
@@ -57,19 +55,6 @@ public class KleinanzeigenClient implements MarketplaceClient {
         }
     }
 
-    private Document loadDocument(String url) throws IOException {
-        Connection connection = Jsoup.connect(url)
-                .userAgent(USER_AGENT)
-                .timeout((int) Duration.ofSeconds(15).toMillis())
-                .header("Accept-Language", "de-DE,de;q=0.9,en;q=0.8")
-                .header("Accept",
-                        "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
-                .header("Cache-Control", "no-cache")
-                .referrer("https://www.google.com")
-                .followRedirects(true);
-        return connection.get();
-    }
-
     private String buildSearchUrl(SearchProfile profile) {
         String categorySegment = safeSlug(profile.getCategory());
         String querySegment = safeSlug(profile.getQuery());
@@ -101,28 +86,11 @@ public class KleinanzeigenClient implements MarketplaceClient {
         return "preis:" + minPart + ':' + maxPart;
     }
 
-    private void throttle() {
-        synchronized (throttleLock) {
-            Instant now = Instant.now();
-            Instant earliestNext = lastRequest.plus(MIN_REQUEST_INTERVAL);
-            if (now.isBefore(earliestNext)) {
-                Duration waitDuration = Duration.between(now, earliestNext);
-                try {
-                    Thread.sleep(waitDuration.toMillis());
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-            lastRequest = Instant.now();
-        }
-    }
-
     private String safeSlug(String value) {
         if (value == null || value.isBlank()) {
             return "";
         }
-        String normalized = Normalizer.normalize(value.trim().toLowerCase(Locale.GERMAN), Normalizer.Form.NFKD)
-                .replaceAll("\\p{M}+", "");
+        String normalized = TextNormalizer.foldDiacritics(value.trim());
         return normalized.replaceAll("[^a-z0-9]+", "-")
                 .replaceAll("(^-|-$)", "");
     }
@@ -4,7 +4,6 @@ import de.kleinanzeigen.app.search.SearchResultItem;
 import java.math.BigDecimal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.text.Normalizer;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -13,6 +12,7 @@ import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -22,7 +22,11 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.jsoup.select.QueryParser;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -31,10 +35,25 @@ public class KleinanzeigenHtmlParser {
     private static final Logger log = LoggerFactory.getLogger(KleinanzeigenHtmlParser.class);
 
     private static final ZoneId ZONE_ID = ZoneId.of("Europe/Berlin");
-    private static final Pattern PRICE_PATTERN = Pattern.compile("([0-9\\s.\\u00A0]+[,][0-9]{2}|[0-9\\s.\\u00A0]+)");
     private static final Pattern TIME_PATTERN = Pattern.compile("(\\d{1,2})[:.](\\d{2})");
     private static final Pattern DATE_PATTERN = Pattern.compile("(\\d{1,2})[.](\\d{1,2})[.](\\d{2,4})");
 
+    private static final Evaluator CONTAINER = QueryParser.parse("li.aditem, article[data-adid]");
+    private static final Evaluator TITLE_H2 = QueryParser.parse("h2");
+    private static final Evaluator TITLE_H3 = QueryParser.parse("h3");
+    private static final Evaluator TITLE_LINK = QueryParser.parse("a.ellipsis");
+    private static final Evaluator LINK = QueryParser.parse("a[href]");
+    private static final Evaluator AD_ID = QueryParser.parse("[name=adId]");
+    private static final String[] PRICE_CLASSES = {
+            "aditem-main--middle--price",
+            "aditem-main--middle__price",
+            "aditem-main--middle--price-shipping--price",
+            "aditem-main--price",
+            "price"
+    };
+    private static final String BOTTOM_CLASS = "aditem-main--bottom";
+    private static final String TOP_CLASS = "aditem-main--top";
+
     private final Clock clock;
 
     public KleinanzeigenHtmlParser() {
@@ -48,10 +67,12 @@ public class KleinanzeigenHtmlParser {
     public List<SearchResultItem> parse(Document document) {
         List<SearchResultItem> items = new ArrayList<>();
         Set<String> seenIds = new HashSet<>();
-        Elements containers = document.select("li.aditem, article[data-adid]");
+        ListingVisitor visitor = new ListingVisitor();
 
-        for (Element container : containers) {
-            extractItem(container).ifPresent(item -> {
+        for (Element container : document.select(CONTAINER)) {
+            visitor.reset(container);
+            NodeTraversor.traverse(visitor, container);
+            visitor.toItem().ifPresent(item -> {
                 if (seenIds.add(item.id())) {
                     items.add(item);
                 }
@@ -60,100 +81,20 @@ public class KleinanzeigenHtmlParser {
         return items;
     }
 
-    private Optional<SearchResultItem> extractItem(Element container) {
-        String id = extractId(container);
-        if (id == null || id.isBlank()) {
-            return Optional.empty();
-        }
-
-        Element titleElement = firstNonNull(
-                container.selectFirst("h2"),
-                container.selectFirst("h3"),
-                container.selectFirst("a.ellipsis"));
-        if (titleElement == null) {
-            return Optional.empty();
-        }
-        String title = titleElement.text().trim();
-        if (title.isBlank()) {
-            return Optional.empty();
-        }
-
-        Element linkElement = container.selectFirst("a[href]");
-        String href = linkElement != null ? linkElement.attr("href") : null;
-        if (href == null || href.isBlank()) {
-            return Optional.empty();
-        }
-        String url = normalizeUrl(href);
-
-        BigDecimal price = extractPrice(container);
-        String location = extractLocation(container);
-        Instant publishedAt = extractPublishedAt(container);
-
-        return Optional.of(new SearchResultItem(id, title, url, price, location, publishedAt));
-    }
-
-    private String extractId(Element container) {
-        if (container.hasAttr("data-adid")) {
-            return container.attr("data-adid");
-        }
-        if (container.hasAttr("data-item-id")) {
-            return container.attr("data-item-id");
-        }
-        Element idHolder = container.selectFirst("[name=adId]");
-        return idHolder != null ? idHolder.attr("value") : null;
-    }
-
-    private BigDecimal extractPrice(Element container) {
-        Element priceElement = firstNonNull(
-                container.selectFirst(".aditem-main--middle--price"),
-                container.selectFirst(".aditem-main--middle__price"),
-                container.selectFirst(".aditem-main--middle--price-shipping--price"),
-                container.selectFirst(".aditem-main--price"),
-                container.selectFirst(".price"));
+    static BigDecimal priceOf(Element priceElement) {
         if (priceElement == null) {
             log.debug("Price element missing for listing");
             return null;
         }
         String raw = priceElement.text();
-        if (raw == null) {
-            return null;
-        }
-        String normalized = Normalizer.normalize(raw, Normalizer.Form.NFKC).toLowerCase(Locale.GERMAN);
-        if (normalized.contains("verschenken")) {
-            return null;
-        }
-        String sanitized = normalized
-                .replace("vb", "")
-                .replaceAll("[^0-9,\\.\\s\\u00A0]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
-        Matcher matcher = PRICE_PATTERN.matcher(sanitized);
-        if (!matcher.find()) {
-            log.debug("Could not parse price - raw='{}' sanitized='{}'", raw, sanitized);
-            return null;
-        }
-        String numeric = matcher.group(1)
-                .replace("\u00A0", "")
-                .replace(" ", "")
-                .replace(".", "")
-                .replace(",", ".")
-                .trim();
-        if (numeric.isBlank()) {
-            return null;
-        }
-        try {
-            return new BigDecimal(numeric);
-        } catch (NumberFormatException ignored) {
-            log.debug("Number format exception for price '{}'", numeric);
-            return null;
+        long cents = PriceParser.parseCents(raw);
+        if (cents == PriceParser.NO_PRICE) {
+            log.debug("No price in '{}'", raw);
         }
+        return PriceParser.toBigDecimal(cents);
     }
 
-    private String extractLocation(Element container) {
-        Element locationCandidate = firstNonNull(
-                container.selectFirst(".aditem-main--bottom span"),
-                container.selectFirst(".aditem-main--bottom div"),
-                container.selectFirst(".aditem-main--top span"));
+    static String locationOf(Element locationCandidate) {
         if (locationCandidate == null) {
             return null;
         }
@@ -165,23 +106,7 @@ public class KleinanzeigenHtmlParser {
         return cleaned.isBlank() ? null : "Kleinanzeigen - " + cleaned;
     }
 
-    private Instant extractPublishedAt(Element container) {
-        Elements dateCandidates = container.select(".aditem-main--bottom *");
-        Instant now = Instant.now(clock);
-        for (Element candidate : dateCandidates) {
-            String text = candidate.text();
-            if (text == null || text.isBlank()) {
-                continue;
-            }
-            Instant parsed = parsePublishedAt(text);
-            if (parsed != null) {
-                return parsed;
-            }
-        }
-        return now;
-    }
-
-    private Instant parsePublishedAt(String raw) {
+    Instant parsePublishedAt(String raw) {
         String trimmed = raw.trim();
         if (trimmed.isEmpty()) {
             return null;
@@ -224,7 +149,7 @@ public class KleinanzeigenHtmlParser {
     }
 
     @SafeVarargs
-    private Element firstNonNull(Element... candidates) {
+    static Element firstNonNull(Element... candidates) {
         for (Element element : candidates) {
             if (element != null) {
                 return element;
@@ -233,11 +158,138 @@ public class KleinanzeigenHtmlParser {
         return null;
     }
 
-    private String normalizeUrl(String href) {
+    static String normalizeUrl(String href) {
         if (href.startsWith("http://") || href.startsWith("https://")) {
             return href;
         }
         String normalized = href.startsWith("/") ? href : "/" + href;
         return "https://www.kleinanzeigen.de" + normalized;
     }
+
+    /**
+     * Collects all fields of one listing in a single walk over its subtree. Every slot keeps the first match
+     * in document order, which is what a selectFirst call for the field's selector returns.
+     */
+    private final class ListingVisitor implements NodeVisitor {
+
+        private Element container;
+        private Element adIdHolder;
+        private Element h2;
+        private Element h3;
+        private Element ellipsisLink;
+        private Element link;
+        private final Element[] prices = new Element[PRICE_CLASSES.length];
+        private Element bottomSpan;
+        private Element bottomDiv;
+        private Element topSpan;
+        private Instant publishedAt;
+        private int bottomDepth;
+        private int topDepth;
+
+        void reset(Element container) {
+            this.container = container;
+            adIdHolder = null;
+            h2 = null;
+            h3 = null;
+            ellipsisLink = null;
+            link = null;
+            Arrays.fill(prices, null);
+            bottomSpan = null;
+            bottomDiv = null;
+            topSpan = null;
+            publishedAt = null;
+            bottomDepth = 0;
+            topDepth = 0;
+        }
+
+        @Override
+        public void head(Node node, int depth) {
+            if (!(node instanceof Element element)) {
+                return;
+            }
+            if (bottomDepth > 0) {
+                if (bottomSpan == null && element.normalName().equals("span")) {
+                    bottomSpan = element;
+                }
+                if (bottomDiv == null && element.normalName().equals("div")) {
+                    bottomDiv = element;
+                }
+                if (publishedAt == null) {
+                    String text = element.text();
+                    if (!text.isBlank()) {
+                        publishedAt = parsePublishedAt(text);
+                    }
+                }
+            }
+            if (topDepth > 0 && topSpan == null && element.normalName().equals("span")) {
+                topSpan = element;
+            }
+            if (element.hasClass(BOTTOM_CLASS)) {
+                bottomDepth++;
+            }
+            if (element.hasClass(TOP_CLASS)) {
+                topDepth++;
+            }
+
+            if (h2 == null && TITLE_H2.matches(container, element)) {
+                h2 = element;
+            } else if (h3 == null && TITLE_H3.matches(container, element)) {
+                h3 = element;
+            }
+            if (ellipsisLink == null && TITLE_LINK.matches(container, element)) {
+                ellipsisLink = element;
+            }
+            if (link == null && LINK.matches(container, element)) {
+                link = element;
+            }
+            if (adIdHolder == null && AD_ID.matches(container, element)) {
+                adIdHolder = element;
+            }
+            for (int i = 0; i < PRICE_CLASSES.length; i++) {
+                if (prices[i] == null && element.hasClass(PRICE_CLASSES[i])) {
+                    prices[i] = element;
+                }
+            }
+        }
+
+        @Override
+        public void tail(Node node, int depth) {
+            if (node instanceof Element element) {
+                if (element.hasClass(BOTTOM_CLASS)) {
+                    bottomDepth--;
+                }
+                if (element.hasClass(TOP_CLASS)) {
+                    topDepth--;
+                }
+            }
+        }
+
+        Optional<SearchResultItem> toItem() {
+            String id = container.hasAttr("data-adid") ? container.attr("data-adid")
+                    : container.hasAttr("data-item-id") ? container.attr("data-item-id")
+                    : adIdHolder != null ? adIdHolder.attr("value") : null;
+            if (id == null || id.isBlank()) {
+                return Optional.empty();
+            }
+
+            Element titleElement = firstNonNull(h2, h3, ellipsisLink);
+            if (titleElement == null) {
+                return Optional.empty();
+            }
+            String title = titleElement.text().trim();
+            if (title.isBlank()) {
+                return Optional.empty();
+            }
+
+            String href = link != null ? link.attr("href") : null;
+            if (href == null || href.isBlank()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new SearchResultItem(id, title, normalizeUrl(href), priceOf(firstNonNull(prices)),
+                    locationOf(firstNonNull(bottomSpan, bottomDiv, topSpan)),
+                    publishedAt != null ? publishedAt : Instant.now(clock),
+                    KleinanzeigenClient.MARKETPLACE_ID));
+        }
+    }
 }
@@ -1,15 +1,21 @@
 package de.kleinanzeigen.app.marketplace;
 
+import de.kleinanzeigen.app.marketplace.http.FetchedPage;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpClient;
 import de.kleinanzeigen.app.search.SearchResultItem;
 import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,13 +27,17 @@ public class ManaygaClient implements MarketplaceClient {
     private static final Logger log = LoggerFactory.getLogger(ManaygaClient.class);
     public static final String MARKETPLACE_ID = "manayga";
     private static final String BASE_URL = "https://manayga.de";
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
-            + "(KHTML, like Gecko) Chrome/129.0 Safari/537.36";
+    private static final int MAX_PAGES = 5; // Limit to avoid excessive scraping
+    private static final int PAGE_SIZE = 12;
 
     private final ManaygaHtmlParser parser;
+    private final MarketplaceHttpClient httpClient;
+    private final MarketplaceMetrics metrics;
 
-    public ManaygaClient(ManaygaHtmlParser parser) {
+    public ManaygaClient(ManaygaHtmlParser parser, MarketplaceHttpClient httpClient, MarketplaceMetrics metrics) {
         this.parser = parser;
+        this.httpClient = httpClient;
+        this.metrics = metrics;
     }
 
     @Override
@@ -37,61 +47,109 @@ public class ManaygaClient implements MarketplaceClient {
 
     @Override
     public List<SearchResultItem> search(SearchProfile profile) {
-        List<SearchResultItem> allItems = new ArrayList<>();
-        int page = 1;
-        int maxPages = 5; // Limit to avoid excessive scraping
+        return search(profile, items -> {
+        });
+    }
+
+    @Override
+    public List<SearchResultItem> search(SearchProfile profile, Consumer<List<SearchResultItem>> pages) {
+        ManaygaSearchOutcome outcome = searchPages(profile, pages);
+        log.debug("Fetched total {} items for profile {} ({} of {} pages)", outcome.items().size(), profile.getId(),
+                outcome.pagesFetched(), outcome.pagesPlanned());
+        return outcome.items();
+    }
+
+    /**
+     * Loads the first page, plans the remaining pages from the total result count shown on it and fetches
+     * those concurrently. The host rate limit of the HTTP client paces the requests.
+     */
+    public ManaygaSearchOutcome searchPages(SearchProfile profile) {
+        return searchPages(profile, items -> {
+        });
+    }
 
-        while (page <= maxPages) {
-            throttle();
+    /**
+     * Passes the new items of every page to {@code pages} as soon as it is parsed.
+     */
+    public ManaygaSearchOutcome searchPages(SearchProfile profile, Consumer<List<SearchResultItem>> pages) {
+        String firstPageUrl = buildSearchUrl(profile, 1);
+        Document firstPage;
+        try {
+            log.debug("Fetching Manayga listing for profile {} from {}", profile.getId(), firstPageUrl);
+            firstPage = httpClient.fetchDocument(MARKETPLACE_ID, firstPageUrl);
+        } catch (IOException e) {
+            log.error("Failed to load search page from Manayga: {}", firstPageUrl, e);
+            metrics.recordFailure(MARKETPLACE_ID, e);
+            return new ManaygaSearchOutcome(List.of(), null, 1, 0);
+        }
+
+        Map<String, SearchResultItem> itemsById = new LinkedHashMap<>();
+        List<SearchResultItem> firstItems = parse(firstPage);
+        pages.accept(addAll(itemsById, firstItems));
+
+        OptionalInt totalCount = parser.parseTotalCount(firstPage);
+        int pagesPlanned = planPages(totalCount, firstItems.size());
+        int pagesFetched = 1;
+
+        List<CompletableFuture<FetchedPage>> pending = new ArrayList<>(pagesPlanned - 1);
+        for (int page = 2; page <= pagesPlanned; page++) {
             String requestUrl = buildSearchUrl(profile, page);
+            log.debug("Fetching Manayga listing for profile {} from {}", profile.getId(), requestUrl);
+            pending.add(httpClient.fetchAsync(MARKETPLACE_ID, requestUrl));
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            CompletableFuture<FetchedPage> page = pending.get(i);
             try {
-                log.debug("Fetching Manayga listing for profile {} from {}", profile.getId(), requestUrl);
-                Document document = loadDocument(requestUrl);
-                List<SearchResultItem> items = parser.parse(document);
-
-                if (items.isEmpty()) {
-                    break;
-                }
-
-                allItems.addAll(items);
-                page++;
-
-                // If we found fewer items than a typical page size, we're likely done
-                if (items.size() < 12) {
-                    break;
-                }
-            } catch (IOException e) {
-                log.error("Failed to load search page from Manayga: {}", requestUrl, e);
-                break; // Stop on error
+                pages.accept(addAll(itemsById, parse(page.get().toDocument())));
+                pagesFetched++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.forEach(remaining -> remaining.cancel(true));
+                break;
+            } catch (ExecutionException | IOException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                log.error("Failed to load search page {} from Manayga for profile {}", i + 2, profile.getId(), cause);
+                metrics.recordFailure(MARKETPLACE_ID, cause);
             }
         }
 
-        log.debug("Fetched total {} items for profile {}", allItems.size(), profile.getId());
-        return allItems;
+        return new ManaygaSearchOutcome(List.copyOf(itemsById.values()),
+                totalCount.isPresent() ? totalCount.getAsInt() : null, pagesPlanned, pagesFetched);
     }
 
-    private Document loadDocument(String url) throws IOException {
-        Connection connection = Jsoup.connect(url)
-                .userAgent(USER_AGENT)
-                .timeout((int) Duration.ofSeconds(15).toMillis())
-                .header("Accept-Language", "de-DE,de;q=0.9,en;q=0.8")
-                .header("Accept",
-                        "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8")
-                .header("Cache-Control", "no-cache")
-                .followRedirects(true);
-        return connection.get();
+    private List<SearchResultItem> parse(Document page) {
+        long parseStart = System.nanoTime();
+        List<SearchResultItem> items = parser.parse(page);
+        metrics.recordParse(MARKETPLACE_ID, System.nanoTime() - parseStart, items.size());
+        return items;
     }
 
-    private String buildSearchUrl(SearchProfile profile, int page) {
-        String query = URLEncoder.encode(profile.getQuery(), StandardCharsets.UTF_8);
-        return BASE_URL + "/search?q=" + query + "&page=" + page;
+    private static int planPages(OptionalInt totalCount, int firstPageSize) {
+        if (totalCount.isPresent()) {
+            int pages = (totalCount.getAsInt() + PAGE_SIZE - 1) / PAGE_SIZE;
+            return Math.max(1, Math.min(MAX_PAGES, pages));
+        }
+        // Without a count only a full first page hints at more results
+        return firstPageSize < PAGE_SIZE ? 1 : MAX_PAGES;
     }
 
-    private void throttle() {
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    /**
+     * Returns the items that were not on an earlier page.
+     */
+    private static List<SearchResultItem> addAll(Map<String, SearchResultItem> itemsById,
+            List<SearchResultItem> items) {
+        // Pages can overlap when the shop reorders results between requests
+        List<SearchResultItem> added = new ArrayList<>(items.size());
+        for (SearchResultItem item : items) {
+            if (itemsById.putIfAbsent(item.id(), item) == null) {
+                added.add(item);
+            }
         }
+        return added;
+    }
+
+    private String buildSearchUrl(SearchProfile profile, int page) {
+        String query = URLEncoder.encode(profile.getQuery(), StandardCharsets.UTF_8);
+        return BASE_URL + "/search?q=" + query + "&page=" + page;
     }
 }
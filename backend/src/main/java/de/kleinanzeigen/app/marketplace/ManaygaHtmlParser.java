@@ -1,14 +1,19 @@
 package de.kleinanzeigen.app.marketplace;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.nodes.DataNode;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -21,27 +26,69 @@ public class ManaygaHtmlParser {
 
     private static final Logger log = LoggerFactory.getLogger(ManaygaHtmlParser.class);
     private static final String BASE_URL = "https://manayga.de";
+    private static final Pattern LEADING_NUMBER = Pattern.compile("^\\s*(\\d[\\d.]*)");
+    private static final Pattern TITLE_COUNT = Pattern.compile("(\\d[\\d.]*)\\s+Ergebnisse");
     private final ObjectMapper objectMapper;
+    private volatile Strategy preferredStrategy = Strategy.DATA_EVENTS;
 
     public ManaygaHtmlParser(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
     public List<SearchResultItem> parse(Document document) {
-        // Try parsing from data-events script first
-        Optional<List<SearchResultItem>> jsonItems = parseFromJson(document);
-        if (jsonItems.isPresent()) {
-            return jsonItems.get();
+        // Start with the JSON strategy that worked for the last page, the shop renders all pages the same way.
+        // The HTML fallback is never preferred: its ids and prices differ from the JSON ones
+        Strategy first = preferredStrategy;
+        Optional<List<SearchResultItem>> items = parseWith(first, document);
+        if (items.isPresent()) {
+            return items.get();
         }
+        Strategy second = first == Strategy.DATA_EVENTS ? Strategy.SCRIPT_CONTENT : Strategy.DATA_EVENTS;
+        items = parseWith(second, document);
+        if (items.isPresent()) {
+            preferredStrategy = second;
+            return items.get();
+        }
+        return parseWith(Strategy.HTML, document).orElse(List.of());
+    }
+
+    /**
+     * Total number of search results as shown on the page. The search_submitted event only carries the
+     * variants of the current page, so this reads the result counter of the theme and falls back to the title.
+     */
+    public OptionalInt parseTotalCount(Document document) {
+        Element counter = document.selectFirst("#ProductCount, results-count");
+        if (counter != null) {
+            OptionalInt count = leadingNumber(counter.text());
+            if (count.isPresent()) {
+                return count;
+            }
+        }
+        Matcher matcher = TITLE_COUNT.matcher(document.title());
+        if (matcher.find()) {
+            return leadingNumber(matcher.group(1));
+        }
+        return OptionalInt.empty();
+    }
 
-        // Try parsing from script content (web-pixels-manager-setup)
-        jsonItems = parseFromScriptContent(document);
-        if (jsonItems.isPresent()) {
-            return jsonItems.get();
+    private static OptionalInt leadingNumber(String text) {
+        Matcher matcher = LEADING_NUMBER.matcher(text);
+        if (!matcher.find()) {
+            return OptionalInt.empty();
         }
+        try {
+            return OptionalInt.of(Integer.parseInt(matcher.group(1).replace(".", "")));
+        } catch (NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
 
-        // Fallback to HTML parsing
-        return parseFromHtml(document);
+    private Optional<List<SearchResultItem>> parseWith(Strategy strategy, Document document) {
+        return switch (strategy) {
+            case DATA_EVENTS -> parseFromJson(document);
+            case SCRIPT_CONTENT -> parseFromScriptContent(document);
+            case HTML -> parseFromHtml(document);
+        };
     }
 
     private Optional<List<SearchResultItem>> parseFromJson(Document document) {
@@ -55,7 +102,12 @@ public class ManaygaHtmlParser {
             return Optional.empty();
         }
 
-        return parseEventsJson(dataEvents);
+        try (JsonParser parser = objectMapper.getFactory().createParser(dataEvents)) {
+            return readEvents(parser);
+        } catch (IOException e) {
+            log.warn("Failed to parse events JSON", e);
+            return Optional.empty();
+        }
     }
 
     private Optional<List<SearchResultItem>> parseFromScriptContent(Document document) {
@@ -64,7 +116,9 @@ public class ManaygaHtmlParser {
             return Optional.empty();
         }
 
-        String content = script.data();
+        // A script usually holds a single data node, its text can be read without copying
+        List<DataNode> dataNodes = script.dataNodes();
+        String content = dataNodes.size() == 1 ? dataNodes.get(0).getWholeData() : script.data();
         if (content.isBlank()) {
             return Optional.empty();
         }
@@ -80,82 +134,132 @@ public class ManaygaHtmlParser {
                 break;
             }
         }
-
-        if (start != -1) {
-            StringBuilder jsonBuilder = new StringBuilder();
-            boolean escaped = false;
-            for (int i = start; i < content.length(); i++) {
-                char c = content.charAt(i);
-                if (escaped) {
-                    jsonBuilder.append(c);
-                    escaped = false;
-                } else {
-                    if (c == '\\') {
-                        escaped = true;
-                    } else if (c == '"') {
-                        break; // End of string
-                    } else {
-                        jsonBuilder.append(c);
-                    }
-                }
-            }
-            return parseEventsJson(jsonBuilder.toString());
+        if (start == -1) {
+            return Optional.empty();
         }
 
-        return Optional.empty();
+        // The events JSON is embedded as an escaped JS string, it is unescaped while Jackson reads it
+        try (JsonParser parser = objectMapper.getFactory().createParser(new JsStringReader(content, start))) {
+            return readEvents(parser);
+        } catch (IOException e) {
+            log.warn("Failed to parse events JSON", e);
+            return Optional.empty();
+        }
     }
 
-    private Optional<List<SearchResultItem>> parseEventsJson(String jsonString) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonString);
-            if (!root.isArray()) {
-                return Optional.empty();
+    /**
+     * Walks the events array ({@code [[name, payload], ...]}) and only descends into the payload of a
+     * search_submitted event, everything else is skipped without being materialized.
+     */
+    private Optional<List<SearchResultItem>> readEvents(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            return Optional.empty();
+        }
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
             }
+            Optional<List<SearchResultItem>> items = Optional.empty();
+            token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                continue;
+            }
+            if (token == JsonToken.VALUE_STRING && "search_submitted".equals(parser.getText())
+                    && parser.nextToken() == JsonToken.START_OBJECT) {
+                items = readSearchSubmitted(parser);
+            } else {
+                parser.skipChildren();
+            }
+            if (items.isPresent()) {
+                return items;
+            }
+            // Skip whatever is left of this event
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                parser.skipChildren();
+            }
+        }
+        return Optional.empty();
+    }
 
-            for (JsonNode event : root) {
-                if (event.isArray() && event.size() >= 2 && "search_submitted".equals(event.get(0).asText())) {
-                    JsonNode payload = event.get(1);
-                    if (payload.has("searchResult") && payload.get("searchResult").has("productVariants")) {
-                        return Optional.of(extractItemsFromJson(payload.get("searchResult").get("productVariants")));
+    private Optional<List<SearchResultItem>> readSearchSubmitted(JsonParser parser) throws IOException {
+        Optional<List<SearchResultItem>> items = Optional.empty();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("searchResult".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String resultField = parser.currentName();
+                    JsonToken resultValue = parser.nextToken();
+                    if ("productVariants".equals(resultField) && resultValue == JsonToken.START_ARRAY
+                            && items.isEmpty()) {
+                        items = Optional.of(readProductVariants(parser));
+                    } else {
+                        parser.skipChildren();
                     }
                 }
+            } else {
+                parser.skipChildren();
             }
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to parse events JSON", e);
         }
-        return Optional.empty();
+        return items;
     }
 
-    private List<SearchResultItem> extractItemsFromJson(JsonNode productVariants) {
+    private List<SearchResultItem> readProductVariants(JsonParser parser) throws IOException {
         List<SearchResultItem> items = new ArrayList<>();
-        if (!productVariants.isArray()) {
-            return items;
-        }
-
-        for (JsonNode variant : productVariants) {
-            try {
-                String id = variant.path("product").path("id").asText();
-                String title = variant.path("product").path("title").asText();
-                String urlPath = variant.path("product").path("url").asText();
-                double priceValue = variant.path("price").path("amount").asDouble();
-
-                if (id.isBlank() || title.isBlank()) {
-                    continue;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String id = "";
+            String title = "";
+            String urlPath = "";
+            double priceValue = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("price".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String priceField = parser.currentName();
+                        parser.nextToken();
+                        if ("amount".equals(priceField)) {
+                            priceValue = parser.getValueAsDouble();
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("product".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String productField = parser.currentName();
+                        parser.nextToken();
+                        switch (productField) {
+                            case "id" -> id = parser.getValueAsString("");
+                            case "title" -> title = parser.getValueAsString("");
+                            case "url" -> urlPath = parser.getValueAsString("");
+                            default -> parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
                 }
+            }
 
-                String url = urlPath.startsWith("http") ? urlPath
-                        : BASE_URL + (urlPath.startsWith("/") ? "" : "/") + urlPath;
-                BigDecimal price = BigDecimal.valueOf(priceValue);
-
-                items.add(new SearchResultItem(id, title, url, price, "Manayga", Instant.now()));
-            } catch (Exception e) {
-                log.warn("Failed to parse item from JSON", e);
+            if (id.isBlank() || title.isBlank()) {
+                continue;
             }
+            String url = urlPath.startsWith("http") ? urlPath
+                    : BASE_URL + (urlPath.startsWith("/") ? "" : "/") + urlPath;
+            BigDecimal price = PriceParser.toBigDecimal(Math.round(priceValue * 100));
+            items.add(new SearchResultItem(id, title, url, price, "Manayga", Instant.now(),
+                    ManaygaClient.MARKETPLACE_ID));
         }
         return items;
     }
 
-    private List<SearchResultItem> parseFromHtml(Document document) {
+    private Optional<List<SearchResultItem>> parseFromHtml(Document document) {
         List<SearchResultItem> items = new ArrayList<>();
         Elements containers = document.select(".grid-view-item, .product-card, .product-item");
 
@@ -171,26 +275,21 @@ public class ManaygaHtmlParser {
                 }
 
                 String fullUrl = url.startsWith("http") ? url : BASE_URL + (url.startsWith("/") ? "" : "/") + url;
-                BigDecimal price = parsePrice(priceText);
+                BigDecimal price = PriceParser.toBigDecimal(PriceParser.parseCents(priceText));
                 String id = fullUrl; // Use URL as ID if no better ID found
 
-                items.add(new SearchResultItem(id, title, fullUrl, price, "Manayga", Instant.now()));
+                items.add(new SearchResultItem(id, title, fullUrl, price, "Manayga", Instant.now(),
+                        ManaygaClient.MARKETPLACE_ID));
             } catch (Exception e) {
                 log.warn("Failed to parse item from HTML", e);
             }
         }
-        return items;
+        return items.isEmpty() ? Optional.empty() : Optional.of(items);
     }
 
-    private BigDecimal parsePrice(String text) {
-        if (text == null || text.isBlank()) {
-            return null;
-        }
-        try {
-            String cleaned = text.replaceAll("[^0-9,.]", "").replace(",", ".");
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            return null;
-        }
+    private enum Strategy {
+        DATA_EVENTS,
+        SCRIPT_CONTENT,
+        HTML
     }
 }
@@ -0,0 +1,16 @@
+package de.kleinanzeigen.app.marketplace;
+
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.util.List;
+
+/**
+ * Items of a Manayga search together with the pagination bookkeeping: how many pages the total result count
+ * asked for and how many of them were actually loaded.
+ */
+public record ManaygaSearchOutcome(
+        List<SearchResultItem> items,
+        Integer totalCount,
+        int pagesPlanned,
+        int pagesFetched
+) {
+}
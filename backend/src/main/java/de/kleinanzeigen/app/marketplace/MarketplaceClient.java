@@ -3,10 +3,21 @@ package de.kleinanzeigen.app.marketplace;
 import de.kleinanzeigen.app.search.SearchResultItem;
 import de.kleinanzeigen.app.searchprofile.SearchProfile;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MarketplaceClient {
 
     boolean supports(String marketplaceId);
 
     List<SearchResultItem> search(SearchProfile profile);
+
+    /**
+     * Like {@link #search(SearchProfile)}, but hands the items to {@code pages} as soon as they are parsed. Each
+     * item is passed once; clients that load a single page pass everything at the end.
+     */
+    default List<SearchResultItem> search(SearchProfile profile, Consumer<List<SearchResultItem>> pages) {
+        List<SearchResultItem> items = search(profile);
+        pages.accept(items);
+        return items;
+    }
 }
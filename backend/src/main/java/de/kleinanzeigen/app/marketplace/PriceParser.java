@@ -0,0 +1,114 @@
+package de.kleinanzeigen.app.marketplace;
+
+import java.math.BigDecimal;
+
+/**
+ * Reads the first amount out of a marketplace price label such as "1.200 € VB", "EUR 12,34", "$1,234.50"
+ * or "20,- €" in one pass, without regex or intermediate strings. Amounts are returned as cents,
+ * {@link #NO_PRICE} stands for labels without an amount and for "Zu verschenken".
+ *
+ * <p>The last '.' or ',' is the decimal separator when both kinds appear, or when it occurs once and is not
+ * followed by exactly three digits (a leading 0 never starts a group). Otherwise separators and spaces between
+ * digits are taken as grouping.
+ */
+final class PriceParser {
+
+    static final long NO_PRICE = Long.MIN_VALUE;
+
+    private static final String GIVEAWAY = "verschenken";
+    private static final long MAX_UNITS = Long.MAX_VALUE / 100 / 10;
+
+    private PriceParser() {
+    }
+
+    static long parseCents(CharSequence text) {
+        if (text == null || containsIgnoreCase(text, GIVEAWAY)) {
+            return NO_PRICE;
+        }
+        int length = text.length();
+        int i = 0;
+        while (i < length && !isDigit(text.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return NO_PRICE;
+        }
+
+        long units = 0;
+        long unitsBeforeSeparator = 0;
+        char lastSeparator = 0;
+        int commas = 0;
+        int dots = 0;
+        int tailDigits = 0;
+        int tailValue = 0; // first three digits after the last separator, enough for rounding to cents
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                if (units > MAX_UNITS) {
+                    return NO_PRICE;
+                }
+                units = units * 10 + (c - '0');
+                if (lastSeparator != 0) {
+                    if (tailDigits < 3) {
+                        tailValue = tailValue * 10 + (c - '0');
+                    }
+                    tailDigits++;
+                }
+            } else if ((c == '.' || c == ',') && i + 1 < length && isDigit(text.charAt(i + 1))) {
+                lastSeparator = c;
+                unitsBeforeSeparator = units;
+                tailDigits = 0;
+                tailValue = 0;
+                if (c == '.') {
+                    dots++;
+                } else {
+                    commas++;
+                }
+            } else if (!(isGroupingSpace(c) && i + 1 < length && isDigit(text.charAt(i + 1)))) {
+                break;
+            }
+        }
+
+        boolean decimal = lastSeparator != 0
+                && ((commas > 0 && dots > 0)
+                || ((lastSeparator == ',' ? commas : dots) == 1
+                        && (tailDigits != 3 || unitsBeforeSeparator == 0)));
+        if (!decimal) {
+            return units > MAX_UNITS ? NO_PRICE : units * 100;
+        }
+        long cents = switch (Math.min(tailDigits, 3)) {
+            case 1 -> tailValue * 10L;
+            case 2 -> tailValue;
+            default -> (tailValue + 5) / 10; // three or more digits, round half up
+        };
+        return unitsBeforeSeparator * 100 + cents;
+    }
+
+    static BigDecimal toBigDecimal(long cents) {
+        return cents == NO_PRICE ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isGroupingSpace(char c) {
+        // plain, no-break, narrow no-break and thin space as well as the Swiss apostrophe
+        return c == ' ' || c == '\u00A0' || c == '\u202F' || c == '\u2009' || c == '\'';
+    }
+
+    private static boolean containsIgnoreCase(CharSequence text, String needle) {
+        int last = text.length() - needle.length();
+        for (int start = 0; start <= last; start++) {
+            int matched = 0;
+            while (matched < needle.length()
+                    && Character.toLowerCase(text.charAt(start + matched)) == needle.charAt(matched)) {
+                matched++;
+            }
+            if (matched == needle.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+record CachedResponse(
+        String url,
+        byte[] body,
+        String charset,
+        String etag,
+        String lastModified,
+        long expiresAtMillis
+) {
+
+    boolean isFresh(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+
+    boolean canRevalidate() {
+        return etag != null || lastModified != null;
+    }
+
+    CachedResponse withExpiry(long expiresAtMillis) {
+        return new CachedResponse(url, body, charset, etag, lastModified, expiresAtMillis);
+    }
+
+    long sizeInBytes() {
+        return body.length + 256L;
+    }
+
+    FetchedPage toPage() {
+        return new FetchedPage(url, 200, body, charset);
+    }
+}
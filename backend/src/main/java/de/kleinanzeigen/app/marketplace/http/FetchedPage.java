@@ -0,0 +1,100 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Decoded response body of a marketplace page. {@code charset} is {@code null} when the server did not send
+ * one, it is then detected from the BOM or the meta tags like jsoup does.
+ */
+public record FetchedPage(
+        String url,
+        int statusCode,
+        byte[] body,
+        String charset
+) {
+
+    // jsoup looks for the meta tags in the first 5 KB as well
+    private static final int META_SCAN_BYTES = 5 * 1024;
+
+    public InputStream openStream() {
+        return new ByteArrayInputStream(body);
+    }
+
+    /**
+     * Character stream of the body without BOM, decoded with the same charset {@link #toDocument()} uses.
+     */
+    public Reader openReader() {
+        if (hasUtf8Bom()) {
+            return new InputStreamReader(new ByteArrayInputStream(body, 3, body.length - 3), StandardCharsets.UTF_8);
+        }
+        return new InputStreamReader(openStream(), detectCharset());
+    }
+
+    public Document toDocument() throws IOException {
+        return Jsoup.parse(openStream(), detectCharset().name(), url);
+    }
+
+    /**
+     * BOM first, then the response charset, then {@code <meta charset>} or {@code <meta http-equiv>}, UTF-8
+     * when none of them names a supported charset.
+     */
+    private Charset detectCharset() {
+        if (hasUtf8Bom()) {
+            return StandardCharsets.UTF_8;
+        }
+        if (body.length >= 2 && ((body[0] == (byte) 0xFE && body[1] == (byte) 0xFF)
+                || (body[0] == (byte) 0xFF && body[1] == (byte) 0xFE))) {
+            // Takes the byte order from the BOM and skips it
+            return StandardCharsets.UTF_16;
+        }
+        Charset declared = supported(charset);
+        if (declared != null) {
+            return declared;
+        }
+        String head = new String(body, 0, Math.min(body.length, META_SCAN_BYTES), StandardCharsets.ISO_8859_1);
+        for (Element meta : Jsoup.parse(head).select("meta[http-equiv=content-type], meta[charset]")) {
+            Charset fromMeta = meta.hasAttr("http-equiv")
+                    ? supported(charsetParameter(meta.attr("content")))
+                    : supported(meta.attr("charset"));
+            if (fromMeta != null) {
+                return fromMeta;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private boolean hasUtf8Bom() {
+        return body.length >= 3 && body[0] == (byte) 0xEF && body[1] == (byte) 0xBB && body[2] == (byte) 0xBF;
+    }
+
+    static String charsetParameter(String contentType) {
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                return trimmed.substring(8).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    private static Charset supported(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            // unknown charset name
+            return null;
+        }
+    }
+}
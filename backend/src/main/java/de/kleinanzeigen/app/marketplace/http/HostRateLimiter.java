@@ -0,0 +1,92 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token bucket per host. A request reserves the next permit and gets a future that completes when the permit
+ * is due, nobody sleeps while holding the bucket. Hosts without a configured rate limit are not limited.
+ */
+@Component
+public class HostRateLimiter {
+
+    private static final CompletableFuture<Void> NO_WAIT = CompletableFuture.completedFuture(null);
+
+    private final MarketplaceHttpProperties properties;
+    private final LongSupplier nanoTime;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HostRateLimiter(MarketplaceHttpProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    HostRateLimiter(MarketplaceHttpProperties properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+    }
+
+    public CompletableFuture<Void> acquire(String host) {
+        long waitNanos = reserveNanos(host);
+        if (waitNanos <= 0) {
+            return NO_WAIT;
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Reserves a permit for the host and returns how long the caller has to wait until it may send.
+     */
+    long reserveNanos(String host) {
+        MarketplaceHttpProperties.RateLimit rateLimit = properties.rateLimitFor(host);
+        if (rateLimit == null) {
+            return 0;
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(host, key -> new TokenBucket(
+                rateLimit.interval().toNanos(), rateLimit.burst(), nanoTime.getAsLong()));
+        return bucket.reserve(nanoTime.getAsLong());
+    }
+
+    private static final class TokenBucket {
+
+        private final long intervalNanos;
+        private final int burst;
+        private final ReentrantLock lock = new ReentrantLock();
+        private double storedPermits;
+        private long nextFreeNanos;
+
+        private TokenBucket(long intervalNanos, int burst, long now) {
+            this.intervalNanos = intervalNanos;
+            this.burst = burst;
+            this.storedPermits = burst;
+            this.nextFreeNanos = now;
+        }
+
+        long reserve(long now) {
+            lock.lock();
+            try {
+                if (now > nextFreeNanos) {
+                    storedPermits = Math.min(burst, storedPermits + (double) (now - nextFreeNanos) / intervalNanos);
+                    nextFreeNanos = now;
+                }
+                if (storedPermits >= 1) {
+                    storedPermits -= 1;
+                } else {
+                    // Wait for the missing fraction of a token, later callers queue up behind this reservation
+                    nextFreeNanos += (long) ((1 - storedPermits) * intervalNanos);
+                    storedPermits = 0;
+                }
+                return nextFreeNanos - now;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.io.IOException;
+
+public class HttpFetchException extends IOException {
+
+    private final int statusCode;
+
+    public HttpFetchException(String url, int statusCode) {
+        super("unexpected HTTP status " + statusCode + " for " + url);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
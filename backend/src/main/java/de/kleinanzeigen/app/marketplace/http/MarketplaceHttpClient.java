@@ -0,0 +1,223 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import de.kleinanzeigen.app.shared.TaskExecutors;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared fetch layer for all marketplace clients. Keeps one pooled {@link HttpClient} per host, so
+ * connections (and TLS sessions) are reused across scheduled runs, negotiates HTTP/2 where the server offers
+ * it and decodes gzip/deflate bodies up to the configured maximum size. Responses go through the
+ * {@link ResponseCache}, stale entries are revalidated with the origin's validators. Requests that reach
+ * the network are paced by the {@link HostRateLimiter}.
+ */
+@Component
+public class MarketplaceHttpClient {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceHttpClient.class);
+    private static final String ACCEPT = "text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,"
+            + "image/webp,*/*;q=0.8";
+
+    private final MarketplaceHttpProperties properties;
+    private final ResponseCache responseCache;
+    private final HostRateLimiter rateLimiter;
+    private final MarketplaceMetrics metrics;
+    private final Map<String, HttpClient> clientsByHost = new ConcurrentHashMap<>();
+    private final ExecutorService bodyExecutor;
+
+    public MarketplaceHttpClient(MarketplaceHttpProperties properties, ResponseCache responseCache,
+            HostRateLimiter rateLimiter, MarketplaceMetrics metrics,
+            @Value(TaskExecutors.VIRTUAL_THREADS) boolean virtualThreads) {
+        this.properties = properties;
+        this.responseCache = responseCache;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.bodyExecutor = TaskExecutors.newPerTaskExecutor("marketplace-body-", virtualThreads);
+    }
+
+    public Document fetchDocument(String marketplaceId, String url) throws IOException {
+        return fetch(marketplaceId, url).toDocument();
+    }
+
+    public FetchedPage fetch(String marketplaceId, String url) throws IOException {
+        CompletableFuture<FetchedPage> pending = fetchAsync(marketplaceId, url);
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while fetching " + url, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("failed to fetch " + url, e.getCause());
+        }
+    }
+
+    /**
+     * Fetches the page once the host's rate limiter grants a permit. Callers are not blocked while waiting for
+     * the permit, the request is sent from the limiter's delayed completion.
+     */
+    public CompletableFuture<FetchedPage> fetchAsync(String marketplaceId, String url) {
+        String cacheKey = null;
+        CachedResponse cached = null;
+        if (responseCache.isEnabled()) {
+            cacheKey = ResponseCache.normalizeKey(url);
+            cached = responseCache.lookup(cacheKey);
+            if (cached != null && responseCache.isFresh(cached)) {
+                log.debug("Serving {} from response cache", url);
+                return CompletableFuture.completedFuture(cached.toPage());
+            }
+        }
+
+        URI uri = URI.create(url);
+        String host = uri.getHost();
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(properties.readTimeoutFor(host))
+                .header("User-Agent", properties.userAgent())
+                .header("Accept", ACCEPT)
+                .header("Accept-Language", properties.acceptLanguage())
+                .header("Accept-Encoding", "gzip, deflate");
+        properties.headersFor(host).forEach(request::header);
+        if (cached != null && cached.canRevalidate()) {
+            if (cached.etag() != null) {
+                request.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                request.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        String key = cacheKey;
+        CachedResponse stale = cached;
+        long requestedAt = System.nanoTime();
+        return rateLimiter.acquire(host)
+                .thenCompose(ignored -> {
+                    long sentAt = System.nanoTime();
+                    metrics.recordThrottleWait(marketplaceId, sentAt - requestedAt);
+                    return clientFor(host).sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                            .thenApplyAsync(response -> {
+                                try {
+                                    return complete(marketplaceId, url, key, stale, response);
+                                } catch (IOException e) {
+                                    throw new CompletionException(e);
+                                }
+                            }, bodyExecutor)
+                            .whenComplete((page, error) ->
+                                    metrics.recordFetch(marketplaceId, System.nanoTime() - sentAt, error == null));
+                });
+    }
+
+    private FetchedPage complete(String marketplaceId, String url, String cacheKey, CachedResponse cached,
+            HttpResponse<InputStream> response) throws IOException {
+        metrics.recordResponse(marketplaceId, response.statusCode());
+        if (response.statusCode() == 304 && cached != null) {
+            response.body().close();
+            responseCache.recordRevalidation();
+            CachedResponse revalidated = cached.withExpiry(responseCache.expiryFor(marketplaceId));
+            responseCache.store(cacheKey, revalidated);
+            log.debug("Revalidated cached response for {}", url);
+            return revalidated.toPage();
+        }
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            response.body().close();
+            throw new HttpFetchException(url, response.statusCode());
+        }
+        try (InputStream body = decode(response)) {
+            byte[] bytes = readLimited(body, properties.maxBodySize().toBytes(), url);
+            metrics.recordResponseBytes(marketplaceId, bytes.length);
+            log.debug("Fetched {} bytes from {} via {}", bytes.length, url, response.version());
+            FetchedPage page = new FetchedPage(response.uri().toString(), response.statusCode(), bytes,
+                    charsetOf(response));
+            if (cacheKey != null) {
+                responseCache.recordMiss();
+                cacheIfAllowed(marketplaceId, cacheKey, page, response);
+            }
+            return page;
+        }
+    }
+
+    private void cacheIfAllowed(String marketplaceId, String cacheKey, FetchedPage page,
+            HttpResponse<?> response) {
+        long expiresAt = responseCache.expiryFor(marketplaceId);
+        String cacheControl = response.headers().firstValue("Cache-Control").orElse("").toLowerCase(Locale.ROOT);
+        if (expiresAt < 0 || cacheControl.contains("no-store")) {
+            return;
+        }
+        responseCache.store(cacheKey, new CachedResponse(page.url(), page.body(), page.charset(),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                expiresAt));
+    }
+
+    public ResponseCacheStats responseCacheStats() {
+        return responseCache.stats();
+    }
+
+    private HttpClient clientFor(String host) {
+        return clientsByHost.computeIfAbsent(host, key -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(properties.connectTimeoutFor(key))
+                .build());
+    }
+
+    private static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim()
+                .toLowerCase(Locale.ROOT);
+        return switch (encoding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(response.body());
+            case "deflate" -> new InflaterInputStream(response.body());
+            default -> response.body();
+        };
+    }
+
+    private static byte[] readLimited(InputStream body, long maxBytes, String url) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        byte[] chunk = new byte[16 * 1024];
+        long total = 0;
+        int read;
+        while ((read = body.read(chunk)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IOException("response body of " + url + " exceeds " + maxBytes + " bytes");
+            }
+            buffer.write(chunk, 0, read);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String charsetOf(HttpResponse<?> response) {
+        return FetchedPage.charsetParameter(response.headers().firstValue("Content-Type").orElse(""));
+    }
+
+    @PreDestroy
+    void close() {
+        bodyExecutor.shutdownNow();
+        clientsByHost.values().forEach(HttpClient::close);
+        clientsByHost.clear();
+    }
+}
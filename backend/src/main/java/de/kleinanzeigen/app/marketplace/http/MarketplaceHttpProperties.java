@@ -0,0 +1,80 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "marketplace.http")
+public record MarketplaceHttpProperties(
+        String userAgent,
+        String acceptLanguage,
+        Duration connectTimeout,
+        Duration readTimeout,
+        DataSize maxBodySize,
+        Map<String, Host> hosts
+) {
+
+    private static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/129.0 Safari/537.36";
+
+    public MarketplaceHttpProperties {
+        userAgent = userAgent != null ? userAgent : DEFAULT_USER_AGENT;
+        acceptLanguage = acceptLanguage != null ? acceptLanguage : "de-DE,de;q=0.9,en;q=0.8";
+        connectTimeout = connectTimeout != null ? connectTimeout : Duration.ofSeconds(10);
+        readTimeout = readTimeout != null ? readTimeout : Duration.ofSeconds(15);
+        maxBodySize = maxBodySize != null ? maxBodySize : DataSize.ofMegabytes(5);
+        hosts = hosts != null ? Map.copyOf(hosts) : Map.of();
+    }
+
+    public static MarketplaceHttpProperties defaults() {
+        return new MarketplaceHttpProperties(null, null, null, null, null, null);
+    }
+
+    public Duration connectTimeoutFor(String host) {
+        Host settings = hosts.get(host);
+        return settings != null && settings.connectTimeout() != null ? settings.connectTimeout() : connectTimeout;
+    }
+
+    public Duration readTimeoutFor(String host) {
+        Host settings = hosts.get(host);
+        return settings != null && settings.readTimeout() != null ? settings.readTimeout() : readTimeout;
+    }
+
+    public Map<String, String> headersFor(String host) {
+        Host settings = hosts.get(host);
+        return settings != null && settings.headers() != null ? settings.headers() : Map.of();
+    }
+
+    public RateLimit rateLimitFor(String host) {
+        Host settings = hosts.get(host);
+        return settings != null ? settings.rateLimit() : null;
+    }
+
+    public record Host(
+            Duration connectTimeout,
+            Duration readTimeout,
+            Map<String, String> headers,
+            RateLimit rateLimit
+    ) {
+    }
+
+    /**
+     * Token bucket settings: one permit per {@code interval}, up to {@code burst} permits can be saved up.
+     */
+    public record RateLimit(
+            Duration interval,
+            Integer burst
+    ) {
+
+        public RateLimit {
+            if (interval == null || interval.isZero() || interval.isNegative()) {
+                throw new IllegalArgumentException("rate limit interval must be positive");
+            }
+            burst = burst != null ? burst : 1;
+            if (burst < 1) {
+                throw new IllegalArgumentException("rate limit burst must be at least 1");
+            }
+        }
+    }
+}
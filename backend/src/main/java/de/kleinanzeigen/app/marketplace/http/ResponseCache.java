@@ -0,0 +1,313 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Two-tier cache for marketplace responses, keyed by the normalized request URL. The memory tier is an LRU
+ * bounded by body bytes, the disk tier keeps gzip-compressed entries so they survive restarts. Stale entries
+ * are kept for conditional revalidation with their ETag / Last-Modified validators.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+    private static final int DISK_FORMAT_VERSION = 1;
+    private static final String ENTRY_SUFFIX = ".gz";
+
+    private final ResponseCacheProperties properties;
+    private final Clock clock;
+    private final ReentrantLock memoryLock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedResponse> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+    private final ReentrantLock diskEvictionLock = new ReentrantLock();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final boolean diskEnabled;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public ResponseCache(ResponseCacheProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.diskEnabled = properties.enabled() && initDiskTier(properties.diskDirectory());
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public ResponseCacheStats stats() {
+        memoryLock.lock();
+        try {
+            return new ResponseCacheStats(
+                    memoryHits.sum() + diskHits.sum(),
+                    memoryHits.sum(),
+                    diskHits.sum(),
+                    misses.sum(),
+                    revalidations.sum(),
+                    memory.size(),
+                    memoryBytes);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    CachedResponse lookup(String key) {
+        CachedResponse cached = fromMemory(key);
+        boolean inMemory = cached != null;
+        if (cached == null && diskEnabled) {
+            cached = fromDisk(key);
+            if (cached != null) {
+                toMemory(key, cached);
+            }
+        }
+        if (cached != null && isFresh(cached)) {
+            (inMemory ? memoryHits : diskHits).increment();
+        }
+        return cached;
+    }
+
+    boolean isFresh(CachedResponse cached) {
+        return cached.isFresh(clock.millis());
+    }
+
+    /**
+     * Expiry for a response of the given marketplace stored now, or {@code -1} if it should not be cached.
+     */
+    long expiryFor(String marketplaceId) {
+        Duration ttl = properties.ttlFor(marketplaceId);
+        return ttl.isZero() || ttl.isNegative() ? -1 : clock.millis() + ttl.toMillis();
+    }
+
+    void store(String key, CachedResponse response) {
+        toMemory(key, response);
+        if (diskEnabled) {
+            toDisk(key, response);
+        }
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    /**
+     * Lower-cases scheme and host, drops default ports and fragments and sorts query parameters, so that
+     * equivalent URLs share one entry.
+     */
+    static String normalizeKey(String url) {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "https";
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || ("https".equals(scheme) && port == 443)
+                || ("http".equals(scheme) && port == 80);
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+
+        StringBuilder key = new StringBuilder(url.length()).append(scheme).append("://").append(host);
+        if (!defaultPort) {
+            key.append(':').append(port);
+        }
+        key.append(path);
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] parameters = query.split("&");
+            Arrays.sort(parameters);
+            key.append('?').append(String.join("&", parameters));
+        }
+        return key.toString();
+    }
+
+    private CachedResponse fromMemory(String key) {
+        memoryLock.lock();
+        try {
+            return memory.get(key);
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private void toMemory(String key, CachedResponse response) {
+        long maxBytes = properties.memoryMaxSize().toBytes();
+        if (response.sizeInBytes() > maxBytes) {
+            return;
+        }
+        memoryLock.lock();
+        try {
+            CachedResponse previous = memory.put(key, response);
+            if (previous != null) {
+                memoryBytes -= previous.sizeInBytes();
+            }
+            memoryBytes += response.sizeInBytes();
+            Iterator<Map.Entry<String, CachedResponse>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > maxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().sizeInBytes();
+                eldest.remove();
+            }
+        } finally {
+            memoryLock.unlock();
+        }
+    }
+
+    private CachedResponse fromDisk(String key) {
+        Path file = pathFor(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != DISK_FORMAT_VERSION || !key.equals(in.readUTF())) {
+                return null;
+            }
+            String url = in.readUTF();
+            String charset = readNullable(in);
+            String etag = readNullable(in);
+            String lastModified = readNullable(in);
+            long expiresAt = in.readLong();
+            byte[] body = in.readNBytes(in.readInt());
+            return new CachedResponse(url, body, charset, etag, lastModified, expiresAt);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.debug("Dropping unreadable cache entry {}", file, e);
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void toDisk(String key, CachedResponse response) {
+        Path file = pathFor(key);
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(file.getParent(), "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(DISK_FORMAT_VERSION);
+                out.writeUTF(key);
+                out.writeUTF(response.url());
+                writeNullable(out, response.charset());
+                writeNullable(out, response.etag());
+                writeNullable(out, response.lastModified());
+                out.writeLong(response.expiresAtMillis());
+                out.writeInt(response.body().length);
+                out.write(response.body());
+            }
+            long previousSize = Files.exists(file) ? Files.size(file) : 0;
+            long size = Files.size(tempFile);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(size - previousSize) > properties.diskMaxSize().toBytes()) {
+                evictDisk();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write cache entry for {}", response.url(), e);
+            if (tempFile != null) {
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    private void evictDisk() {
+        if (!diskEvictionLock.tryLock()) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(properties.diskDirectory())) {
+            long target = properties.diskMaxSize().toBytes() * 9 / 10;
+            List<Path> oldestFirst = entries
+                    .filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .toList();
+            for (Path entry : oldestFirst) {
+                if (diskBytes.get() <= target) {
+                    break;
+                }
+                long size = Files.size(entry);
+                if (Files.deleteIfExists(entry)) {
+                    diskBytes.addAndGet(-size);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to evict disk cache entries", e);
+        } finally {
+            diskEvictionLock.unlock();
+        }
+    }
+
+    private boolean initDiskTier(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> entries = Files.list(directory)) {
+                diskBytes.set(entries.mapToLong(path -> path.toFile().length()).sum());
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Disk cache disabled, cannot use directory {}", directory, e);
+            return false;
+        }
+    }
+
+    private Path pathFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return properties.diskDirectory().resolve(HexFormat.of().formatHex(digest) + ENTRY_SUFFIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // entry is overwritten on the next store
+        }
+    }
+}
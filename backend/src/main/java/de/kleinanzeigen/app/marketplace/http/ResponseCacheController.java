@@ -0,0 +1,21 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/http-cache")
+public class ResponseCacheController {
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheController(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseCacheStats stats() {
+        return responseCache.stats();
+    }
+}
@@ -0,0 +1,36 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "marketplace.cache")
+public record ResponseCacheProperties(
+        Boolean enabled,
+        DataSize memoryMaxSize,
+        Path diskDirectory,
+        DataSize diskMaxSize,
+        Duration defaultTtl,
+        Map<String, Duration> ttls
+) {
+
+    public ResponseCacheProperties {
+        enabled = enabled != null ? enabled : Boolean.TRUE;
+        memoryMaxSize = memoryMaxSize != null ? memoryMaxSize : DataSize.ofMegabytes(32);
+        diskDirectory = diskDirectory != null ? diskDirectory
+                : Path.of(System.getProperty("java.io.tmpdir"), "kleinanzeigen-http-cache");
+        diskMaxSize = diskMaxSize != null ? diskMaxSize : DataSize.ofMegabytes(256);
+        defaultTtl = defaultTtl != null ? defaultTtl : Duration.ofMinutes(1);
+        ttls = ttls != null ? Map.copyOf(ttls) : Map.of();
+    }
+
+    public static ResponseCacheProperties disabled() {
+        return new ResponseCacheProperties(false, null, null, null, null, null);
+    }
+
+    public Duration ttlFor(String marketplaceId) {
+        return ttls.getOrDefault(marketplaceId, defaultTtl);
+    }
+}
@@ -0,0 +1,12 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+public record ResponseCacheStats(
+        long hits,
+        long memoryHits,
+        long diskHits,
+        long misses,
+        long revalidations,
+        int memoryEntries,
+        long memoryBytes
+) {
+}
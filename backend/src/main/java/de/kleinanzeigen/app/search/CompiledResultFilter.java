@@ -0,0 +1,160 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter of a profile prepared for repeated use. The checks run cheapest first: price, publication time,
+ * location and finally the keyword scan of the title. Unknown values (no price, no date, no location) pass
+ * the respective check, like {@link PriceRange#contains} does for prices. Price ranges are resolved to cents
+ * once, a minimum with fractions of a cent rounded up and a maximum rounded down.
+ */
+public final class CompiledResultFilter {
+
+    private static final long NO_WINDOW = -1;
+
+    private final PriceBounds priceBounds;
+    private final Map<String, PriceBounds> priceOverrides;
+    private final long publishedWithinSeconds;
+    private final KeywordMatcher includedLocations;
+    private final KeywordMatcher excludedLocations;
+    private final KeywordMatcher excludedKeywords;
+    private final KeywordMatcher requiredKeywords;
+
+    private CompiledResultFilter(ResultFilterSpec spec) {
+        this.priceBounds = isUnbounded(spec.priceRange()) ? null : PriceBounds.of(spec.priceRange());
+        Map<String, PriceBounds> overrides = new HashMap<>();
+        spec.priceOverrides().forEach((marketplaceId, range) -> overrides.put(marketplaceId, PriceBounds.of(range)));
+        this.priceOverrides = Map.copyOf(overrides);
+        this.publishedWithinSeconds = spec.publishedWithinHours() != null
+                ? spec.publishedWithinHours() * 3600L
+                : NO_WINDOW;
+        this.includedLocations = KeywordMatcher.of(spec.includedLocations());
+        this.excludedLocations = KeywordMatcher.of(spec.excludedLocations());
+        this.excludedKeywords = KeywordMatcher.of(spec.excludedKeywords());
+        this.requiredKeywords = KeywordMatcher.of(spec.requiredKeywords());
+    }
+
+    public static CompiledResultFilter of(SearchProfile profile) {
+        return compile(ResultFilterSpec.of(profile));
+    }
+
+    static CompiledResultFilter compile(ResultFilterSpec spec) {
+        return new CompiledResultFilter(spec);
+    }
+
+    boolean isPassThrough() {
+        return priceBounds == null && priceOverrides.isEmpty() && publishedWithinSeconds == NO_WINDOW
+                && !filtersLocations() && excludedKeywords.isEmpty() && requiredKeywords.isEmpty();
+    }
+
+    boolean matches(SearchResultItem item, Instant now) {
+        PriceBounds bounds = priceOverrides.getOrDefault(item.marketplaceId(), priceBounds);
+        if (bounds != null && !bounds.contains(ResultBatch.toCents(item.price()))) {
+            return false;
+        }
+        if (publishedWithinSeconds != NO_WINDOW && item.publishedAt() != null
+                && item.publishedAt().getEpochSecond() < now.getEpochSecond() - publishedWithinSeconds) {
+            return false;
+        }
+        if (item.location() != null && !locationAllowed(item.location())) {
+            return false;
+        }
+        return titleAllowed(item.title());
+    }
+
+    /**
+     * Same checks as {@link #matches}, one column at a time. Price bounds are looked up once per marketplace and
+     * locations resolved once per dictionary entry.
+     */
+    void retain(ResultBatch batch, BitSet selection, Instant now) {
+        int size = batch.size();
+        if (priceBounds != null || !priceOverrides.isEmpty()) {
+            List<String> marketplaceIds = batch.marketplaceIds();
+            PriceBounds[] bounds = new PriceBounds[marketplaceIds.size()];
+            for (int code = 0; code < marketplaceIds.size(); code++) {
+                bounds[code] = priceOverrides.getOrDefault(marketplaceIds.get(code), priceBounds);
+            }
+            for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+                PriceBounds rowBounds = bounds[batch.marketplaceCode(row)];
+                if (rowBounds != null && !rowBounds.contains(batch.priceCents(row))) {
+                    selection.clear(row);
+                }
+            }
+        }
+        if (publishedWithinSeconds != NO_WINDOW) {
+            long earliest = now.getEpochSecond() - publishedWithinSeconds;
+            for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+                long published = batch.publishedAtSeconds(row);
+                if (published != ResultBatch.NO_VALUE && published < earliest) {
+                    selection.clear(row);
+                }
+            }
+        }
+        if (filtersLocations()) {
+            List<String> locations = batch.locations();
+            boolean[] allowed = new boolean[locations.size()];
+            for (int code = 0; code < locations.size(); code++) {
+                allowed[code] = locationAllowed(locations.get(code));
+            }
+            for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+                int code = batch.locationCode(row);
+                if (code != ResultBatch.NO_CODE && !allowed[code]) {
+                    selection.clear(row);
+                }
+            }
+        }
+        if (!excludedKeywords.isEmpty() || !requiredKeywords.isEmpty()) {
+            for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+                if (!titleAllowed(batch.title(row))) {
+                    selection.clear(row);
+                }
+            }
+        }
+    }
+
+    private boolean filtersLocations() {
+        return !includedLocations.isEmpty() || !excludedLocations.isEmpty();
+    }
+
+    private boolean locationAllowed(String location) {
+        if (!includedLocations.isEmpty() && !includedLocations.containsAny(location)) {
+            return false;
+        }
+        return !excludedLocations.containsAny(location);
+    }
+
+    private boolean titleAllowed(String title) {
+        return !excludedKeywords.containsAny(title) && requiredKeywords.containsAll(title);
+    }
+
+    private static boolean isUnbounded(PriceRange range) {
+        return range == null || (range.getMin() == null && range.getMax() == null);
+    }
+
+    private record PriceBounds(long minCents, long maxCents) {
+
+        static PriceBounds of(PriceRange range) {
+            return new PriceBounds(toCents(range.getMin(), RoundingMode.CEILING, Long.MIN_VALUE),
+                    toCents(range.getMax(), RoundingMode.FLOOR, Long.MAX_VALUE));
+        }
+
+        boolean contains(long cents) {
+            return cents == ResultBatch.NO_VALUE || (cents >= minCents && cents <= maxCents);
+        }
+    }
+
+    static long toCents(BigDecimal bound, RoundingMode roundingMode, long unbounded) {
+        if (bound == null) {
+            return unbounded;
+        }
+        return bound.setScale(2, roundingMode).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,17 @@
+package de.kleinanzeigen.app.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "search.deduplication")
+public record DeduplicationProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("3") int maxDistance
+) {
+
+    public DeduplicationProperties {
+        if (maxDistance < 0 || maxDistance > 15) {
+            throw new IllegalArgumentException("search.deduplication.max-distance must be between 0 and 15");
+        }
+    }
+}
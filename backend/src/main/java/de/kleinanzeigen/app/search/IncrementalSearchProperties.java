@@ -0,0 +1,12 @@
+package de.kleinanzeigen.app.search;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "search.incremental")
+public record IncrementalSearchProperties(
+        @DefaultValue("2048") int maxSeenItemsPerProfile,
+        @DefaultValue("7d") Duration maxSeenItemAge
+) {
+}
@@ -0,0 +1,47 @@
+package de.kleinanzeigen.app.search;
+
+public final class ItemFingerprint {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ItemFingerprint() {
+    }
+
+    /**
+     * 64-bit fingerprint of marketplace id and item id. Never returns {@code 0}, so it can be stored in a
+     * {@link de.kleinanzeigen.app.shared.LongHashSet}.
+     */
+    public static long of(SearchResultItem item) {
+        return of(item.marketplaceId(), item.id());
+    }
+
+    public static long of(String marketplaceId, String itemId) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = append(hash, marketplaceId);
+        hash = (hash ^ 0x1F) * FNV_PRIME;
+        hash = append(hash, itemId);
+        hash = finish(hash);
+        return hash != 0 ? hash : 1;
+    }
+
+    private static long append(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long finish(long hash) {
+        // MurmurHash3 fmix64, spreads the FNV result over all bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
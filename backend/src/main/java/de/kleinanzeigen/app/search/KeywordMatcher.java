@@ -0,0 +1,241 @@
+package de.kleinanzeigen.app.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Case-insensitive substring search for many keywords in one pass over the text (Aho-Corasick). ASCII
+ * transitions are resolved into a dense table, so a title is scanned with one array lookup per character;
+ * other characters follow the failure links.
+ */
+final class KeywordMatcher {
+
+    private static final int ASCII = 128;
+    private static final int ROOT = 0;
+
+    private final int keywordCount;
+    private final int[] asciiGoto;
+    private final List<Map<Character, Integer>> otherGoto;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    private KeywordMatcher(int keywordCount, int[] asciiGoto, List<Map<Character, Integer>> otherGoto, int[] fail,
+            int[][] outputs) {
+        this.keywordCount = keywordCount;
+        this.asciiGoto = asciiGoto;
+        this.otherGoto = otherGoto;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Blank keywords are ignored and duplicates are matched once.
+     */
+    static KeywordMatcher of(List<String> keywords) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String keyword : keywords) {
+            String normalized = normalize(keyword);
+            if (!normalized.isEmpty()) {
+                distinct.add(normalized);
+            }
+        }
+        return new Builder(distinct).build();
+    }
+
+    int keywordCount() {
+        return keywordCount;
+    }
+
+    boolean isEmpty() {
+        return keywordCount == 0;
+    }
+
+    boolean containsAny(CharSequence text) {
+        if (keywordCount == 0 || text == null) {
+            return false;
+        }
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, Character.toLowerCase(text.charAt(i)));
+            if (outputs[state].length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean containsAll(CharSequence text) {
+        if (keywordCount == 0) {
+            return true;
+        }
+        if (text == null) {
+            return false;
+        }
+        long[] found = new long[(keywordCount + 63) >>> 6];
+        int remaining = keywordCount;
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, Character.toLowerCase(text.charAt(i)));
+            for (int keyword : outputs[state]) {
+                long bit = 1L << keyword;
+                if ((found[keyword >>> 6] & bit) == 0) {
+                    found[keyword >>> 6] |= bit;
+                    if (--remaining == 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private int next(int state, char c) {
+        if (c < ASCII) {
+            return asciiGoto[state * ASCII + c];
+        }
+        while (true) {
+            Integer target = otherGoto.get(state).get(c);
+            if (target != null) {
+                return target;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        String trimmed = keyword.strip();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            normalized.append(Character.toLowerCase(trimmed.charAt(i)));
+        }
+        return normalized.toString();
+    }
+
+    private static final class Builder {
+
+        private final Set<String> keywords;
+        private int[] asciiGoto = new int[16 * ASCII];
+        private final List<Map<Character, Integer>> otherGoto = new ArrayList<>();
+        private final List<List<Integer>> ownOutputs = new ArrayList<>();
+        private int stateCount;
+        private int[] fail;
+
+        Builder(Set<String> keywords) {
+            this.keywords = keywords;
+            newState();
+        }
+
+        KeywordMatcher build() {
+            int index = 0;
+            for (String keyword : keywords) {
+                int state = ROOT;
+                for (int i = 0; i < keyword.length(); i++) {
+                    state = childOrCreate(state, keyword.charAt(i));
+                }
+                ownOutputs.get(state).add(index++);
+            }
+
+            // Breadth-first, so the failure target of every state is complete before its children are visited
+            fail = new int[stateCount];
+            int[][] outputs = new int[stateCount][];
+            outputs[ROOT] = new int[0];
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < ASCII; c++) {
+                int child = asciiGoto[c];
+                if (child > ROOT) {
+                    fail[child] = ROOT;
+                    queue.add(child);
+                } else {
+                    asciiGoto[c] = ROOT;
+                }
+            }
+            for (int child : otherGoto.get(ROOT).values()) {
+                fail[child] = ROOT;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.remove();
+                outputs[state] = mergeOutputs(ownOutputs.get(state), outputs[fail[state]]);
+                for (int c = 0; c < ASCII; c++) {
+                    int child = asciiGoto[state * ASCII + c];
+                    if (child > ROOT) {
+                        fail[child] = asciiGoto[fail[state] * ASCII + c];
+                        queue.add(child);
+                    } else {
+                        asciiGoto[state * ASCII + c] = asciiGoto[fail[state] * ASCII + c];
+                    }
+                }
+                for (Map.Entry<Character, Integer> edge : otherGoto.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    fail[child] = failTarget(fail[state], edge.getKey());
+                    queue.add(child);
+                }
+            }
+            return new KeywordMatcher(keywords.size(), Arrays.copyOf(asciiGoto, stateCount * ASCII),
+                    otherGoto, fail, outputs);
+        }
+
+        private int failTarget(int state, char c) {
+            while (true) {
+                Integer target = otherGoto.get(state).get(c);
+                if (target != null) {
+                    return target;
+                }
+                if (state == ROOT) {
+                    return ROOT;
+                }
+                state = fail[state];
+            }
+        }
+
+        private int childOrCreate(int state, char c) {
+            if (c < ASCII) {
+                int child = asciiGoto[state * ASCII + c];
+                if (child == 0) {
+                    child = newState();
+                    asciiGoto[state * ASCII + c] = child;
+                }
+                return child;
+            }
+            Integer child = otherGoto.get(state).get(c);
+            if (child == null) {
+                child = newState();
+                otherGoto.get(state).put(c, child);
+            }
+            return child;
+        }
+
+        private int newState() {
+            if ((stateCount + 1) * ASCII > asciiGoto.length) {
+                asciiGoto = Arrays.copyOf(asciiGoto, asciiGoto.length * 2);
+            }
+            otherGoto.add(new HashMap<>());
+            ownOutputs.add(new ArrayList<>());
+            return stateCount++;
+        }
+
+        private static int[] mergeOutputs(List<Integer> own, int[] inherited) {
+            if (own.isEmpty()) {
+                return inherited;
+            }
+            int[] merged = Arrays.copyOf(inherited, inherited.length + own.size());
+            for (int i = 0; i < own.size(); i++) {
+                merged[inherited.length + i] = own.get(i);
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceSearchException;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import de.kleinanzeigen.app.shared.TaskExecutors;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets concurrent searches for the same marketplace query share one fetch. The fetch runs as a task of its own,
+ * so cancelling one caller at its deadline does not cut it short for the others. Every caller receives the pages
+ * on its own thread, the pages fetched before it joined first, and gets an own copy of the final list. A failed
+ * fetch is counted once here, however many callers share it.
+ */
+@Component
+public class MarketplaceQueryCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketplaceQueryCoalescer.class);
+
+    // Marks the end of a fetch in the page queues, compared by identity
+    private static final List<SearchResultItem> DONE = Collections.unmodifiableList(new ArrayList<>());
+
+    private final ConcurrentMap<MarketplaceQueryKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final MarketplaceMetrics metrics;
+    private final ExecutorService fetchExecutor;
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @Autowired
+    public MarketplaceQueryCoalescer(MarketplaceMetrics metrics,
+            @Value(TaskExecutors.VIRTUAL_THREADS) boolean virtualThreads) {
+        this(metrics, TaskExecutors.newPerTaskExecutor("marketplace-fetch-", virtualThreads));
+    }
+
+    MarketplaceQueryCoalescer(MarketplaceMetrics metrics, ExecutorService fetchExecutor) {
+        this.metrics = metrics;
+        this.fetchExecutor = fetchExecutor;
+    }
+
+    public List<SearchResultItem> search(String marketplaceId, SearchProfile profile, MarketplaceClient client) {
+        return search(marketplaceId, profile, client, items -> {
+        });
+    }
+
+    /**
+     * Waits for the shared fetch until it completes or the calling thread is interrupted; an interrupted caller
+     * leaves the fetch running for the others.
+     */
+    public List<SearchResultItem> search(String marketplaceId, SearchProfile profile, MarketplaceClient client,
+            Consumer<List<SearchResultItem>> pages) {
+        MarketplaceQueryKey key = MarketplaceQueryKey.of(marketplaceId, profile);
+        Flight flight = new Flight();
+        Flight running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            log.debug("Joining in-flight {} search for profile {}", marketplaceId, profile.getId());
+            flight = running;
+        } else {
+            fetches.incrementAndGet();
+            start(key, flight, profile, client);
+        }
+
+        BlockingQueue<List<SearchResultItem>> queue = flight.subscribe();
+        try {
+            for (List<SearchResultItem> page = queue.take(); page != DONE; page = queue.take()) {
+                pages.accept(page);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flight.unsubscribe(queue);
+            throw new MarketplaceSearchException("interrupted while waiting for " + marketplaceId, e);
+        }
+        return new ArrayList<>(await(flight.result, marketplaceId));
+    }
+
+    public long fetchCount() {
+        return fetches.get();
+    }
+
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private void start(MarketplaceQueryKey key, Flight flight, SearchProfile profile, MarketplaceClient client) {
+        try {
+            fetchExecutor.execute(() -> fetch(key, flight, profile, client));
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.fail(e);
+        }
+    }
+
+    private void fetch(MarketplaceQueryKey key, Flight flight, SearchProfile profile, MarketplaceClient client) {
+        try {
+            flight.complete(List.copyOf(client.search(profile, flight::publish)));
+        } catch (RuntimeException | Error e) {
+            metrics.recordFailure(key.marketplaceId(), e);
+            flight.fail(e);
+        } finally {
+            // Only results of a running fetch are shared, the next search starts a fresh one
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static List<SearchResultItem> await(CompletableFuture<List<SearchResultItem>> result,
+            String marketplaceId) {
+        try {
+            // Completed before DONE was queued
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MarketplaceSearchException("interrupted while waiting for " + marketplaceId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new MarketplaceSearchException("shared " + marketplaceId + " search failed", e.getCause());
+        }
+    }
+
+    /**
+     * One running fetch. Pages go to a queue per caller, so a slow caller only delays itself.
+     */
+    private static final class Flight {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final CompletableFuture<List<SearchResultItem>> result = new CompletableFuture<>();
+        // Both guarded by lock
+        private final List<List<SearchResultItem>> pages = new ArrayList<>();
+        private final List<BlockingQueue<List<SearchResultItem>>> subscribers = new ArrayList<>();
+
+        BlockingQueue<List<SearchResultItem>> subscribe() {
+            BlockingQueue<List<SearchResultItem>> queue = new LinkedBlockingQueue<>();
+            lock.lock();
+            try {
+                queue.addAll(pages);
+                if (result.isDone()) {
+                    queue.add(DONE);
+                } else {
+                    subscribers.add(queue);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return queue;
+        }
+
+        void unsubscribe(BlockingQueue<List<SearchResultItem>> queue) {
+            lock.lock();
+            try {
+                subscribers.remove(queue);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void publish(List<SearchResultItem> items) {
+            List<SearchResultItem> page = List.copyOf(items);
+            lock.lock();
+            try {
+                pages.add(page);
+                subscribers.forEach(queue -> queue.add(page));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(List<SearchResultItem> items) {
+            finish(() -> result.complete(items));
+        }
+
+        void fail(Throwable failure) {
+            finish(() -> result.completeExceptionally(failure));
+        }
+
+        private void finish(Runnable completion) {
+            lock.lock();
+            try {
+                completion.run();
+                subscribers.forEach(queue -> queue.add(DONE));
+                subscribers.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
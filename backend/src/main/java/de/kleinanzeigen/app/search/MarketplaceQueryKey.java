@@ -0,0 +1,36 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Canonical form of the profile fields a marketplace client turns into a request. Profiles with equal keys
+ * produce the same request and can share one fetch.
+ */
+record MarketplaceQueryKey(String marketplaceId, String query, String category, BigDecimal minPrice,
+        BigDecimal maxPrice) {
+
+    static MarketplaceQueryKey of(String marketplaceId, SearchProfile profile) {
+        PriceRange priceRange = profile.getPriceRange();
+        return new MarketplaceQueryKey(
+                marketplaceId,
+                normalize(profile.getQuery()),
+                normalize(profile.getCategory()),
+                priceRange != null ? normalize(priceRange.getMin()) : null,
+                priceRange != null ? normalize(priceRange.getMax()) : null);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        // 10 and 10.00 must end up in the same key
+        return value != null ? value.stripTrailingZeros() : null;
+    }
+}
@@ -0,0 +1,29 @@
+package de.kleinanzeigen.app.search;
+
+public record MarketplaceStatus(
+        String marketplaceId,
+        Status status,
+        long durationMillis,
+        int itemCount,
+        String error
+) {
+
+    public enum Status {
+        OK,
+        TIMED_OUT,
+        FAILED
+    }
+
+    public static MarketplaceStatus ok(String marketplaceId, long durationMillis, int itemCount) {
+        return new MarketplaceStatus(marketplaceId, Status.OK, durationMillis, itemCount, null);
+    }
+
+    public static MarketplaceStatus timedOut(String marketplaceId, long durationMillis) {
+        return new MarketplaceStatus(marketplaceId, Status.TIMED_OUT, durationMillis, 0,
+                "no response within " + durationMillis + " ms");
+    }
+
+    public static MarketplaceStatus failed(String marketplaceId, long durationMillis, String error) {
+        return new MarketplaceStatus(marketplaceId, Status.FAILED, durationMillis, 0, error);
+    }
+}
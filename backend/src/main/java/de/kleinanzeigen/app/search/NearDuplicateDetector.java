@@ -0,0 +1,164 @@
+package de.kleinanzeigen.app.search;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses offers of the same product from different marketplaces into the cheapest one, which lists the
+ * others as {@link SearchResultItem#alternatives()}. Titles count as the same product when their
+ * {@link TitleFingerprint} SimHashes are at most {@code maxDistance} bits apart and they contain the same numbers.
+ * <p>
+ * Candidates are looked up in an LSH index instead of comparing all pairs: the 64 bits are cut into
+ * {@code maxDistance + 1} bands, and two hashes within that distance agree completely in at least one band.
+ * Only the group leaders are indexed.
+ */
+@Component
+public class NearDuplicateDetector {
+
+    private static final Comparator<BigDecimal> PRICE_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final DeduplicationProperties properties;
+    private final int[] bandShifts;
+    private final long[] bandMasks;
+
+    public NearDuplicateDetector(DeduplicationProperties properties) {
+        this.properties = properties;
+        int bands = properties.maxDistance() + 1;
+        this.bandShifts = new int[bands];
+        this.bandMasks = new long[bands];
+        int shift = 0;
+        for (int band = 0; band < bands; band++) {
+            int width = 64 / bands + (band < 64 % bands ? 1 : 0);
+            bandShifts[band] = shift;
+            bandMasks[band] = width == 64 ? -1L : (1L << width) - 1;
+            shift += width;
+        }
+    }
+
+    /**
+     * Returns one item per group in the order the cheapest offers had in {@code items}.
+     */
+    public List<SearchResultItem> collapse(List<SearchResultItem> items) {
+        if (!properties.enabled() || items.size() < 2) {
+            return items;
+        }
+        int size = items.size();
+        TitleFingerprint[] fingerprints = new TitleFingerprint[size];
+        Integer[] byPrice = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            fingerprints[i] = TitleFingerprint.of(items.get(i).title());
+            byPrice[i] = i;
+        }
+        // Stable, so equal prices keep their original order
+        Arrays.sort(byPrice, Comparator.comparing(i -> items.get(i).price(), PRICE_ORDER));
+
+        List<Group> groups = new ArrayList<>();
+        List<Map<Long, List<Integer>>> bandBuckets = new ArrayList<>(bandShifts.length);
+        for (int band = 0; band < bandShifts.length; band++) {
+            bandBuckets.add(new HashMap<>());
+        }
+
+        for (int index : byPrice) {
+            SearchResultItem item = items.get(index);
+            TitleFingerprint fingerprint = fingerprints[index];
+            Group group = fingerprint.hasWords()
+                    ? findGroup(item, fingerprint, fingerprints, groups, bandBuckets)
+                    : null;
+            if (group != null) {
+                group.add(index, item.marketplaceId());
+                continue;
+            }
+            int groupId = groups.size();
+            groups.add(new Group(index, item.marketplaceId()));
+            if (fingerprint.hasWords()) {
+                for (int band = 0; band < bandShifts.length; band++) {
+                    bandBuckets.get(band).computeIfAbsent(bucketKey(fingerprint, band), key -> new ArrayList<>(2))
+                            .add(groupId);
+                }
+            }
+        }
+        if (groups.size() == size) {
+            return items;
+        }
+
+        groups.sort(Comparator.comparingInt(group -> group.leader));
+        List<SearchResultItem> collapsed = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            SearchResultItem leader = items.get(group.leader);
+            if (group.members.isEmpty()) {
+                collapsed.add(leader);
+                continue;
+            }
+            List<OfferLink> alternatives = new ArrayList<>(group.members.size());
+            for (int member : group.members) {
+                alternatives.add(OfferLink.of(items.get(member)));
+            }
+            collapsed.add(leader.withAlternatives(alternatives));
+        }
+        return collapsed;
+    }
+
+    /**
+     * Earliest created, so cheapest, group whose leader is close enough and which has no offer from the item's
+     * marketplace yet.
+     */
+    private Group findGroup(SearchResultItem item, TitleFingerprint fingerprint, TitleFingerprint[] fingerprints,
+            List<Group> groups, List<Map<Long, List<Integer>>> bandBuckets) {
+        int best = -1;
+        for (int band = 0; band < bandShifts.length; band++) {
+            List<Integer> bucket = bandBuckets.get(band).get(bucketKey(fingerprint, band));
+            if (bucket == null) {
+                continue;
+            }
+            // Buckets are filled in group order, so later entries cannot beat the best match found so far
+            for (int groupId : bucket) {
+                if (best >= 0 && groupId >= best) {
+                    break;
+                }
+                Group group = groups.get(groupId);
+                TitleFingerprint leader = fingerprints[group.leader];
+                if (leader.numberSignature() == fingerprint.numberSignature()
+                        && leader.distance(fingerprint) <= properties.maxDistance()
+                        && !group.marketplaceIds.contains(item.marketplaceId())) {
+                    best = groupId;
+                    break;
+                }
+            }
+        }
+        return best >= 0 ? groups.get(best) : null;
+    }
+
+    /**
+     * Band of the SimHash combined with the number signature. Volumes of one series have nearly the same SimHash
+     * and would otherwise all land in one bucket; collisions only add candidates that are checked anyway.
+     */
+    private long bucketKey(TitleFingerprint fingerprint, int band) {
+        long bandValue = (fingerprint.simHash() >>> bandShifts[band]) & bandMasks[band];
+        return bandValue ^ (fingerprint.numberSignature() * 0x9e3779b97f4a7c15L);
+    }
+
+    private static final class Group {
+
+        private final int leader;
+        private final List<Integer> members = new ArrayList<>(2);
+        private final Set<String> marketplaceIds = new HashSet<>(4);
+
+        Group(int leader, String marketplaceId) {
+            this.leader = leader;
+            marketplaceIds.add(marketplaceId);
+        }
+
+        void add(int member, String marketplaceId) {
+            members.add(member);
+            marketplaceIds.add(marketplaceId);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package de.kleinanzeigen.app.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Another offer of the same product, attached to the cheapest one.
+ */
+public record OfferLink(
+        String marketplaceId,
+        String id,
+        String url,
+        BigDecimal price
+) {
+
+    static OfferLink of(SearchResultItem item) {
+        return new OfferLink(item.marketplaceId(), item.id(), item.url(), item.price());
+    }
+}
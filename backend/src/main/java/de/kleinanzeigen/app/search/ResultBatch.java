@@ -0,0 +1,257 @@
+package de.kleinanzeigen.app.search;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-wise layout of result items for filtering and aggregating large result histories. Prices are held as
+ * cents and timestamps as epoch seconds in primitive arrays, locations and marketplaces as codes into a
+ * dictionary. Filters narrow a {@link BitSet} selection; records are only created again by {@link #toItems}.
+ */
+public final class ResultBatch {
+
+    /** Marks a missing price or publication time. */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    /** Code of a missing location. */
+    public static final int NO_CODE = -1;
+
+    private final int size;
+    private final String[] ids;
+    private final String[] titles;
+    private final String[] urls;
+    private final long[] priceCents;
+    private final long[] publishedAtSeconds;
+    private final int[] locationCodes;
+    private final int[] marketplaceCodes;
+    private final List<String> locations;
+    private final List<String> marketplaceIds;
+
+    private ResultBatch(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.urls = Arrays.copyOf(builder.urls, size);
+        this.priceCents = Arrays.copyOf(builder.priceCents, size);
+        this.publishedAtSeconds = Arrays.copyOf(builder.publishedAtSeconds, size);
+        this.locationCodes = Arrays.copyOf(builder.locationCodes, size);
+        this.marketplaceCodes = Arrays.copyOf(builder.marketplaceCodes, size);
+        this.locations = Collections.unmodifiableList(new ArrayList<>(builder.locations.dictionary));
+        this.marketplaceIds = Collections.unmodifiableList(new ArrayList<>(builder.marketplaceIds.dictionary));
+    }
+
+    public static ResultBatch of(List<SearchResultItem> items) {
+        Builder builder = builder(items.size());
+        for (SearchResultItem item : items) {
+            builder.add(item);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Selection containing every row.
+     */
+    public BitSet selectAll() {
+        BitSet selection = new BitSet(size);
+        selection.set(0, size);
+        return selection;
+    }
+
+    /**
+     * Clears the rows whose price lies outside {@code [minCents, maxCents]}. Rows without a price stay selected,
+     * like {@code PriceRange.contains(null)}.
+     */
+    public void retainPriceRange(BitSet selection, long minCents, long maxCents) {
+        for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+            long cents = priceCents[row];
+            if (cents != NO_VALUE && (cents < minCents || cents > maxCents)) {
+                selection.clear(row);
+            }
+        }
+    }
+
+    /**
+     * Clears the rows that do not belong to the marketplace, all rows if it does not occur in the batch.
+     */
+    public void retainMarketplace(BitSet selection, String marketplaceId) {
+        int code = marketplaceIds.indexOf(marketplaceId);
+        if (code == NO_CODE) {
+            selection.clear();
+            return;
+        }
+        for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+            if (marketplaceCodes[row] != code) {
+                selection.clear(row);
+            }
+        }
+    }
+
+    public long priceCents(int row) {
+        return priceCents[row];
+    }
+
+    public long publishedAtSeconds(int row) {
+        return publishedAtSeconds[row];
+    }
+
+    public String title(int row) {
+        return titles[row];
+    }
+
+    /**
+     * Index into {@link #locations()}, or {@link #NO_CODE} for a row without location.
+     */
+    public int locationCode(int row) {
+        return locationCodes[row];
+    }
+
+    /**
+     * Distinct locations in order of first occurrence.
+     */
+    public List<String> locations() {
+        return locations;
+    }
+
+    public int marketplaceCode(int row) {
+        return marketplaceCodes[row];
+    }
+
+    /**
+     * Distinct marketplace ids in order of first occurrence, indexed by {@link #marketplaceCode(int)}.
+     */
+    public List<String> marketplaceIds() {
+        return marketplaceIds;
+    }
+
+    public SearchResultItem toItem(int row) {
+        int locationCode = locationCodes[row];
+        long published = publishedAtSeconds[row];
+        return new SearchResultItem(
+                ids[row],
+                titles[row],
+                urls[row],
+                toPrice(priceCents[row]),
+                locationCode != NO_CODE ? locations.get(locationCode) : null,
+                published != NO_VALUE ? Instant.ofEpochSecond(published) : null,
+                marketplaceIds.get(marketplaceCodes[row]));
+    }
+
+    public List<SearchResultItem> toItems(BitSet selection) {
+        List<SearchResultItem> items = new ArrayList<>(selection.cardinality());
+        for (int row = selection.nextSetBit(0); row >= 0 && row < size; row = selection.nextSetBit(row + 1)) {
+            items.add(toItem(row));
+        }
+        return items;
+    }
+
+    /**
+     * Price in cents, rounded half up, or {@link #NO_VALUE} for {@code null}.
+     */
+    public static long toCents(BigDecimal price) {
+        if (price == null) {
+            return NO_VALUE;
+        }
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toPrice(long cents) {
+        return cents != NO_VALUE ? BigDecimal.valueOf(cents, 2) : null;
+    }
+
+    public static final class Builder {
+
+        private int size;
+        private String[] ids;
+        private String[] titles;
+        private String[] urls;
+        private long[] priceCents;
+        private long[] publishedAtSeconds;
+        private int[] locationCodes;
+        private int[] marketplaceCodes;
+        private final Dictionary locations = new Dictionary();
+        private final Dictionary marketplaceIds = new Dictionary();
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new String[capacity];
+            titles = new String[capacity];
+            urls = new String[capacity];
+            priceCents = new long[capacity];
+            publishedAtSeconds = new long[capacity];
+            locationCodes = new int[capacity];
+            marketplaceCodes = new int[capacity];
+        }
+
+        public Builder add(SearchResultItem item) {
+            Instant publishedAt = item.publishedAt();
+            return add(item.id(), item.title(), item.url(), toCents(item.price()), item.location(),
+                    publishedAt != null ? publishedAt.getEpochSecond() : NO_VALUE, item.marketplaceId());
+        }
+
+        /**
+         * Appends a row; {@code priceCents} and {@code publishedAtSeconds} take {@link #NO_VALUE} when unknown.
+         */
+        public Builder add(String id, String title, String url, long priceCents, String location,
+                long publishedAtSeconds, String marketplaceId) {
+            if (size == ids.length) {
+                grow();
+            }
+            ids[size] = id;
+            titles[size] = title;
+            urls[size] = url;
+            this.priceCents[size] = priceCents;
+            this.publishedAtSeconds[size] = publishedAtSeconds;
+            locationCodes[size] = location != null ? locations.encode(location) : NO_CODE;
+            marketplaceCodes[size] = marketplaceIds.encode(marketplaceId);
+            size++;
+            return this;
+        }
+
+        public ResultBatch build() {
+            return new ResultBatch(this);
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            urls = Arrays.copyOf(urls, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            publishedAtSeconds = Arrays.copyOf(publishedAtSeconds, capacity);
+            locationCodes = Arrays.copyOf(locationCodes, capacity);
+            marketplaceCodes = Arrays.copyOf(marketplaceCodes, capacity);
+        }
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(value, code);
+                dictionary.add(value);
+            }
+            return code;
+        }
+    }
+}
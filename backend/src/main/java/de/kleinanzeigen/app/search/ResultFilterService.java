@@ -1,20 +1,67 @@
 package de.kleinanzeigen.app.search;
 
 import de.kleinanzeigen.app.searchprofile.PriceRange;
-import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ResultFilterService {
 
-    public List<SearchResultItem> applyFilters(SearchProfile profile, List<SearchResultItem> items) {
-        PriceRange priceRange = profile.getPriceRange();
-        if (priceRange == null) {
+    private final Clock clock;
+
+    @Autowired
+    public ResultFilterService() {
+        this(Clock.systemUTC());
+    }
+
+    ResultFilterService(Clock clock) {
+        this.clock = clock;
+    }
+
+    public List<SearchResultItem> applyFilters(CompiledResultFilter filter, List<SearchResultItem> items) {
+        if (filter.isPassThrough()) {
             return items;
         }
-        return items.stream()
-                .filter(item -> priceRange.contains(item.price()))
-                .toList();
+        Instant now = clock.instant();
+        List<SearchResultItem> matching = new ArrayList<>(items.size());
+        for (SearchResultItem item : items) {
+            if (filter.matches(item, now)) {
+                matching.add(item);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Narrows {@code selection} to the rows of the batch that pass the profile's filters.
+     */
+    public BitSet select(CompiledResultFilter filter, ResultBatch batch, BitSet selection) {
+        if (!filter.isPassThrough()) {
+            filter.retain(batch, selection, clock.instant());
+        }
+        return selection;
+    }
+
+    public BitSet select(CompiledResultFilter filter, ResultBatch batch) {
+        return select(filter, batch, batch.selectAll());
+    }
+
+    /**
+     * Same bounds as {@link PriceRange#contains}: a minimum with fractions of a cent is rounded up and a maximum
+     * rounded down, so no price the range excludes is selected.
+     */
+    public void retainPriceRange(PriceRange priceRange, ResultBatch batch, BitSet selection) {
+        if (priceRange == null || (priceRange.getMin() == null && priceRange.getMax() == null)) {
+            return;
+        }
+        batch.retainPriceRange(selection,
+                CompiledResultFilter.toCents(priceRange.getMin(), RoundingMode.CEILING, Long.MIN_VALUE),
+                CompiledResultFilter.toCents(priceRange.getMax(), RoundingMode.FLOOR, Long.MAX_VALUE));
     }
 }
@@ -0,0 +1,31 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filter settings of a profile, copied so that a compiled filter does not change with the profile.
+ */
+record ResultFilterSpec(
+        PriceRange priceRange,
+        Map<String, PriceRange> priceOverrides,
+        List<String> requiredKeywords,
+        List<String> excludedKeywords,
+        List<String> includedLocations,
+        List<String> excludedLocations,
+        Integer publishedWithinHours
+) {
+
+    static ResultFilterSpec of(SearchProfile profile) {
+        return new ResultFilterSpec(
+                profile.getPriceRange(),
+                Map.copyOf(profile.getPriceOverrides()),
+                List.copyOf(profile.getRequiredKeywords()),
+                List.copyOf(profile.getExcludedKeywords()),
+                List.copyOf(profile.getIncludedLocations()),
+                List.copyOf(profile.getExcludedLocations()),
+                profile.getPublishedWithinHours());
+    }
+}
@@ -0,0 +1,62 @@
+package de.kleinanzeigen.app.search;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "search.scheduler")
+public record SchedulerProperties(
+        @DefaultValue("1s") Duration tick,
+        @DefaultValue("30s") Duration maxJitter,
+        @DefaultValue("4") int maxConcurrentRuns,
+        @DefaultValue("2") int maxConcurrentRunsPerMarketplace,
+        Map<String, Integer> marketplaceLimits,
+        @DefaultValue("64") int virtualThreadMaxConcurrentRuns,
+        @DefaultValue("0.3") double adaptiveSmoothing,
+        @DefaultValue("1") double targetNewItemsPerRun,
+        @DefaultValue("16") int maxQueuedManualRuns,
+        @DefaultValue("15m") Duration manualJobRetention,
+        @DefaultValue("10s") Duration manualRetryAfter
+) {
+
+    public SchedulerProperties {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("search.scheduler.tick must be positive");
+        }
+        if (maxJitter.isNegative()) {
+            throw new IllegalArgumentException("search.scheduler.max-jitter must not be negative");
+        }
+        if (maxConcurrentRuns < 1 || maxConcurrentRunsPerMarketplace < 1 || virtualThreadMaxConcurrentRuns < 1) {
+            throw new IllegalArgumentException("search.scheduler concurrency limits must be at least 1");
+        }
+        if (adaptiveSmoothing <= 0 || adaptiveSmoothing > 1) {
+            throw new IllegalArgumentException("search.scheduler.adaptive-smoothing must be in (0, 1]");
+        }
+        if (targetNewItemsPerRun <= 0) {
+            throw new IllegalArgumentException("search.scheduler.target-new-items-per-run must be positive");
+        }
+        if (maxQueuedManualRuns < 1) {
+            throw new IllegalArgumentException("search.scheduler.max-queued-manual-runs must be at least 1");
+        }
+        if (manualJobRetention.isNegative() || manualRetryAfter.isNegative()) {
+            throw new IllegalArgumentException("search.scheduler manual job durations must not be negative");
+        }
+        marketplaceLimits = marketplaceLimits != null ? Map.copyOf(marketplaceLimits) : Map.of();
+    }
+
+    public int limitFor(String marketplaceId) {
+        return marketplaceLimits.getOrDefault(marketplaceId, maxConcurrentRunsPerMarketplace);
+    }
+
+    /**
+     * Limits for runs on virtual threads. A waiting run holds no platform thread there and the per-host rate
+     * limits already bound the requests, so {@code virtual-thread-max-concurrent-runs} replaces both default
+     * limits. Explicit {@code marketplace-limits} still apply.
+     */
+    public SchedulerProperties forVirtualThreads() {
+        return new SchedulerProperties(tick, maxJitter, virtualThreadMaxConcurrentRuns, virtualThreadMaxConcurrentRuns,
+                marketplaceLimits, virtualThreadMaxConcurrentRuns, adaptiveSmoothing, targetNewItemsPerRun,
+                maxQueuedManualRuns, manualJobRetention, manualRetryAfter);
+    }
+}
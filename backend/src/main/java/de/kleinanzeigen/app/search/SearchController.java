@@ -1,24 +1,86 @@
 package de.kleinanzeigen.app.search;
 
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.TaskExecutors;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/search")
 public class SearchController {
 
+    // Headroom for filtering and sending after the slowest marketplace timed out
+    private static final Duration STREAM_GRACE = Duration.ofSeconds(10);
+
     private final SearchExecutionService searchExecutionService;
+    private final SearchJobScheduler jobScheduler;
+    private final SearchExecutionProperties executionProperties;
+    private final ExecutorService streamExecutor;
 
-    public SearchController(SearchExecutionService searchExecutionService) {
+    public SearchController(SearchExecutionService searchExecutionService, SearchJobScheduler jobScheduler,
+            SearchExecutionProperties executionProperties,
+            @Value(TaskExecutors.VIRTUAL_THREADS) boolean virtualThreads) {
         this.searchExecutionService = searchExecutionService;
+        this.jobScheduler = jobScheduler;
+        this.executionProperties = executionProperties;
+        this.streamExecutor = TaskExecutors.newPerTaskExecutor("search-stream-", virtualThreads);
     }
 
     @PostMapping("/profiles/{id}/execute")
-    public ResponseEntity<SearchResult> execute(@PathVariable Long id) {
-        SearchResult result = searchExecutionService.execute(id);
+    public ResponseEntity<SearchResult> execute(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean onlyNew) {
+        SearchResult result = searchExecutionService.execute(id, onlyNew);
         return ResponseEntity.ok(result);
     }
+
+    @PostMapping(value = "/profiles/{id}/execute", params = "async=true")
+    public ResponseEntity<SearchJob> submit(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean onlyNew) {
+        SearchJob job = jobScheduler.submit(searchExecutionService.snapshot(id), onlyNew);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/search/jobs/" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<SearchJob> job(@PathVariable String jobId) {
+        SearchJob job = jobScheduler.job(jobId).orElseThrow(() -> new SearchJobNotFoundException(jobId));
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "/profiles/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable Long id, @RequestParam(defaultValue = "false") boolean onlyNew) {
+        SearchProfileSnapshot snapshot = searchExecutionService.snapshot(id);
+        Duration timeout = snapshot.marketplaceIds().stream()
+                .map(executionProperties::timeoutFor)
+                .max(Duration::compareTo)
+                .orElse(Duration.ZERO)
+                .plus(STREAM_GRACE);
+        SearchEventStream stream = new SearchEventStream(new SseEmitter(timeout.toMillis()));
+        streamExecutor.execute(() -> {
+            try {
+                stream.complete(searchExecutionService.execute(snapshot, onlyNew, stream));
+            } catch (RuntimeException e) {
+                stream.fail(e);
+            }
+        });
+        return stream.emitter();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
+    }
 }
@@ -0,0 +1,76 @@
+package de.kleinanzeigen.app.search;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Sends the progress of one execution as server-sent events: {@code items} for every filtered batch,
+ * {@code marketplace} for every finished marketplace and a closing {@code summary} without the items. Once the
+ * client is gone the remaining events are dropped; the execution still runs to the end, so the seen set matches
+ * what a plain execution would leave.
+ */
+final class SearchEventStream implements SearchExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchEventStream.class);
+
+    private final SseEmitter emitter;
+    private volatile boolean disconnected;
+
+    SearchEventStream(SseEmitter emitter) {
+        this.emitter = emitter;
+        emitter.onTimeout(() -> disconnected = true);
+        emitter.onError(error -> disconnected = true);
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    @Override
+    public void onItems(String marketplaceId, List<SearchResultItem> items) {
+        send("items", new ItemsEvent(marketplaceId, items));
+    }
+
+    @Override
+    public void onMarketplaceDone(MarketplaceStatus status) {
+        send("marketplace", status);
+    }
+
+    void complete(SearchResult result) {
+        send("summary", new SummaryEvent(result.searchProfileId(), result.executedAt(), result.marketplaces(),
+                result.items().size(), result.newItemCount()));
+        emitter.complete();
+    }
+
+    void fail(RuntimeException e) {
+        send("error", new ErrorEvent(e.getMessage()));
+        emitter.complete();
+    }
+
+    private void send(String name, Object data) {
+        if (disconnected) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            disconnected = true;
+            log.debug("Search event stream closed by client: {}", e.getMessage());
+        }
+    }
+
+    record ItemsEvent(String marketplaceId, List<SearchResultItem> items) {
+    }
+
+    record SummaryEvent(Long searchProfileId, Instant executedAt, List<MarketplaceStatus> marketplaces,
+            int itemCount, int newItemCount) {
+    }
+
+    record ErrorEvent(String message) {
+    }
+}
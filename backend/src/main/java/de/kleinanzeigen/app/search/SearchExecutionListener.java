@@ -0,0 +1,23 @@
+package de.kleinanzeigen.app.search;
+
+import java.util.List;
+
+/**
+ * Receives the progress of one profile execution. Called from the marketplace threads, so implementations must
+ * be thread-safe; the calls of one execution never overlap though.
+ */
+public interface SearchExecutionListener {
+
+    SearchExecutionListener NONE = new SearchExecutionListener() {
+    };
+
+    /**
+     * Filtered items of one marketplace, per page for clients that load several. Offers of the same product on
+     * several marketplaces are only merged in the final {@link SearchResult}.
+     */
+    default void onItems(String marketplaceId, List<SearchResultItem> items) {
+    }
+
+    default void onMarketplaceDone(MarketplaceStatus status) {
+    }
+}
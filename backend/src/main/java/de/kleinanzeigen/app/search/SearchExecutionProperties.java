@@ -0,0 +1,21 @@
+package de.kleinanzeigen.app.search;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "search.execution")
+public record SearchExecutionProperties(
+        @DefaultValue("30s") Duration defaultTimeout,
+        Map<String, Duration> marketplaceTimeouts
+) {
+
+    public SearchExecutionProperties {
+        marketplaceTimeouts = marketplaceTimeouts != null ? Map.copyOf(marketplaceTimeouts) : Map.of();
+    }
+
+    public Duration timeoutFor(String marketplaceId) {
+        return marketplaceTimeouts.getOrDefault(marketplaceId, defaultTimeout);
+    }
+}
@@ -3,49 +3,356 @@ package de.kleinanzeigen.app.search;
 import de.kleinanzeigen.app.marketplace.MarketplaceClient;
 import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
 import de.kleinanzeigen.app.searchprofile.SearchProfile;
-import de.kleinanzeigen.app.searchprofile.SearchProfileRepository;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileNotFoundException;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import de.kleinanzeigen.app.shared.TaskExecutors;
+import jakarta.annotation.PreDestroy;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SearchExecutionService {
 
-    private final SearchProfileRepository searchProfileRepository;
+    private static final Logger log = LoggerFactory.getLogger(SearchExecutionService.class);
+
+    private final SearchProfileCache profileCache;
     private final MarketplaceClientRegistry marketplaceClientRegistry;
     private final ResultFilterService resultFilterService;
+    private final SearchExecutionProperties properties;
+    private final SeenItemTracker seenItemTracker;
+    private final MarketplaceQueryCoalescer queryCoalescer;
+    private final NearDuplicateDetector duplicateDetector;
+    private final MarketplaceMetrics metrics;
+    private final ExecutorService fanOutExecutor;
 
     public SearchExecutionService(
-            SearchProfileRepository searchProfileRepository,
+            SearchProfileCache profileCache,
             MarketplaceClientRegistry marketplaceClientRegistry,
-            ResultFilterService resultFilterService) {
-        this.searchProfileRepository = searchProfileRepository;
+            ResultFilterService resultFilterService,
+            SearchExecutionProperties properties,
+            SeenItemTracker seenItemTracker,
+            MarketplaceQueryCoalescer queryCoalescer,
+            NearDuplicateDetector duplicateDetector,
+            MarketplaceMetrics metrics,
+            @Value(TaskExecutors.VIRTUAL_THREADS) boolean virtualThreads) {
+        this.profileCache = profileCache;
         this.marketplaceClientRegistry = marketplaceClientRegistry;
         this.resultFilterService = resultFilterService;
+        this.properties = properties;
+        this.seenItemTracker = seenItemTracker;
+        this.queryCoalescer = queryCoalescer;
+        this.duplicateDetector = duplicateDetector;
+        this.metrics = metrics;
+        this.fanOutExecutor = TaskExecutors.newPerTaskExecutor("search-fan-out-", virtualThreads);
     }
 
     public SearchResult execute(Long searchProfileId) {
-        SearchProfile profile = searchProfileRepository.findById(searchProfileId)
-                .orElseThrow(() -> new IllegalArgumentException("search profile not found: " + searchProfileId));
-        return execute(profile);
+        return execute(searchProfileId, false);
+    }
+
+    public SearchResult execute(Long searchProfileId, boolean onlyNew) {
+        return execute(snapshot(searchProfileId), onlyNew);
+    }
+
+    public SearchProfileSnapshot snapshot(Long searchProfileId) {
+        return profileCache.get(searchProfileId)
+                .orElseThrow(() -> new SearchProfileNotFoundException(searchProfileId));
     }
 
     public SearchResult execute(SearchProfile profile) {
-        java.util.List<SearchResultItem> allItems = new java.util.ArrayList<>();
+        return execute(profile, false);
+    }
+
+    public SearchResult execute(SearchProfile profile, boolean onlyNew) {
+        return execute(SearchProfileSnapshot.of(profile), onlyNew);
+    }
+
+    public SearchResult execute(SearchProfileSnapshot snapshot, boolean onlyNew) {
+        return execute(snapshot, onlyNew, SearchExecutionListener.NONE);
+    }
+
+    /**
+     * Runs the profile against all its marketplaces. With {@code onlyNew} only items that were not returned
+     * by an earlier run of the same profile are passed on; the seen set is updated on every run. The items of
+     * every marketplace, or page, are filtered and passed to the listener as they arrive, the statuses in the
+     * order the marketplaces finish. Offers of the same product from several marketplaces are merged into the
+     * cheapest one in the returned result.
+     */
+    public SearchResult execute(SearchProfileSnapshot snapshot, boolean onlyNew, SearchExecutionListener listener) {
+        SearchProfile profile = snapshot.profile();
+        List<String> marketplaceIds = snapshot.marketplaceIds();
+        ExecutionProgress progress = new ExecutionProgress(profile, snapshot.filter(), onlyNew, marketplaceIds,
+                listener);
+        long startedAt = System.nanoTime();
+
+        // Query all marketplaces at once, every marketplace gets its own deadline relative to the start
+        BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+        List<Future<MarketplaceStatus>> runs = new ArrayList<>(marketplaceIds.size());
+        long[] deadlines = new long[marketplaceIds.size()];
+        for (int i = 0; i < marketplaceIds.size(); i++) {
+            int index = i;
+            deadlines[i] = startedAt + properties.timeoutFor(marketplaceIds.get(i)).toNanos();
+            runs.add(fanOutExecutor.submit(() -> {
+                try {
+                    return search(index, profile, progress);
+                } finally {
+                    finished.add(index);
+                }
+            }));
+        }
+
+        int pending = marketplaceIds.size();
+        while (pending > 0) {
+            long now = System.nanoTime();
+            long waitNanos = Long.MAX_VALUE;
+            for (int i = 0; i < deadlines.length; i++) {
+                if (progress.isDone(i)) {
+                    continue;
+                }
+                if (deadlines[i] - now <= 0) {
+                    runs.get(i).cancel(true);
+                    progress.finish(i, timedOut(marketplaceIds.get(i), profile));
+                    pending--;
+                } else {
+                    waitNanos = Math.min(waitNanos, deadlines[i] - now);
+                }
+            }
+            if (pending == 0) {
+                break;
+            }
+            Integer index;
+            try {
+                index = finished.poll(waitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                runs.forEach(run -> run.cancel(true));
+                for (int i = 0; i < deadlines.length; i++) {
+                    if (!progress.isDone(i)) {
+                        progress.finish(i, MarketplaceStatus.failed(marketplaceIds.get(i), elapsedMillis(startedAt),
+                                "interrupted"));
+                    }
+                }
+                break;
+            }
+            if (index != null && !progress.isDone(index)) {
+                progress.finish(index, statusOf(runs.get(index), marketplaceIds.get(index), startedAt));
+                pending--;
+            }
+        }
+        return progress.toResult();
+    }
+
+    private MarketplaceStatus search(int index, SearchProfile profile, ExecutionProgress progress) {
+        String marketplaceId = progress.marketplaceId(index);
+        long startedAt = System.nanoTime();
+        MarketplaceClient client;
+        try {
+            client = marketplaceClientRegistry.getClient(marketplaceId);
+        } catch (IllegalArgumentException e) {
+            metrics.recordFailure(marketplaceId, e);
+            log.warn("Cannot search marketplace {} for profile {}: {}", marketplaceId, profile.getId(),
+                    e.getMessage());
+            return MarketplaceStatus.failed(marketplaceId, elapsedMillis(startedAt), e.getMessage());
+        }
+        try {
+            List<SearchResultItem> items = queryCoalescer.search(marketplaceId, profile, client,
+                    page -> progress.accept(index, page));
+            return MarketplaceStatus.ok(marketplaceId, elapsedMillis(startedAt), items.size());
+        } catch (Exception e) {
+            // Log error but continue with other marketplaces; the coalescer counts a failed fetch once for all
+            // profiles sharing it
+            log.warn("Failed to search marketplace {} for profile {}: {}", marketplaceId, profile.getId(),
+                    e.getMessage());
+            return MarketplaceStatus.failed(marketplaceId, elapsedMillis(startedAt), e.getMessage());
+        }
+    }
+
+    private MarketplaceStatus timedOut(String marketplaceId, SearchProfile profile) {
+        long timeoutMillis = properties.timeoutFor(marketplaceId).toMillis();
+        metrics.recordFailure(marketplaceId, new TimeoutException());
+        log.warn("Marketplace {} did not answer within {} ms for profile {}", marketplaceId, timeoutMillis,
+                profile.getId());
+        return MarketplaceStatus.timedOut(marketplaceId, timeoutMillis);
+    }
+
+    private MarketplaceStatus statusOf(Future<MarketplaceStatus> run, String marketplaceId, long startedAt) {
+        try {
+            // Done apart from storing the result, search() signals completion just before returning
+            return run.get();
+        } catch (ExecutionException e) {
+            metrics.recordFailure(marketplaceId, e.getCause());
+            // search() reports its own failures, this only covers unexpected errors
+            return MarketplaceStatus.failed(marketplaceId, elapsedMillis(startedAt), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return MarketplaceStatus.failed(marketplaceId, elapsedMillis(startedAt), "interrupted");
+        }
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOutExecutor.shutdownNow();
+    }
 
-        for (String marketplaceId : profile.getMarketplaceIds()) {
+    /**
+     * Collects the filtered items and statuses of one execution. Pages are processed under a lock, so the seen
+     * set sees one page at a time, and pages arriving after their marketplace timed out are dropped like its
+     * final result. Listener calls are queued in the same order and delivered after the lock is released, so a
+     * slow listener does not hold up the other marketplaces or the timeout checks.
+     */
+    private final class ExecutionProgress {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReentrantLock listenerLock = new ReentrantLock();
+        // Guarded by lock, delivered under listenerLock
+        private final ArrayDeque<Runnable> events = new ArrayDeque<>();
+        private final SearchProfile profile;
+        private final CompiledResultFilter filter;
+        private final boolean onlyNew;
+        private final List<String> marketplaceIds;
+        private final SearchExecutionListener listener;
+        private final List<List<SearchResultItem>> matchingItems;
+        private final MarketplaceStatus[] statuses;
+        private int newItemCount;
+
+        ExecutionProgress(SearchProfile profile, CompiledResultFilter filter, boolean onlyNew,
+                List<String> marketplaceIds, SearchExecutionListener listener) {
+            this.profile = profile;
+            this.filter = filter;
+            this.onlyNew = onlyNew;
+            this.marketplaceIds = marketplaceIds;
+            this.listener = listener;
+            this.matchingItems = new ArrayList<>(marketplaceIds.size());
+            for (int i = 0; i < marketplaceIds.size(); i++) {
+                matchingItems.add(new ArrayList<>());
+            }
+            this.statuses = new MarketplaceStatus[marketplaceIds.size()];
+        }
+
+        String marketplaceId(int index) {
+            return marketplaceIds.get(index);
+        }
+
+        void accept(int index, List<SearchResultItem> items) {
+            lock.lock();
+            try {
+                if (statuses[index] != null) {
+                    return;
+                }
+                List<SearchResultItem> unseen = seenItemTracker.retainUnseen(profile.getId(), items);
+                newItemCount += unseen.size();
+                List<SearchResultItem> matching = resultFilterService.applyFilters(filter, onlyNew ? unseen : items);
+                matchingItems.get(index).addAll(matching);
+                if (!matching.isEmpty()) {
+                    String marketplaceId = marketplaceIds.get(index);
+                    events.add(() -> listener.onItems(marketplaceId, matching));
+                }
+            } finally {
+                lock.unlock();
+            }
+            deliverEvents();
+        }
+
+        boolean isDone(int index) {
+            lock.lock();
+            try {
+                return statuses[index] != null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finish(int index, MarketplaceStatus status) {
+            lock.lock();
+            try {
+                statuses[index] = status;
+                metrics.recordFilteredItems(marketplaceIds.get(index), matchingItems.get(index).size());
+                events.add(() -> listener.onMarketplaceDone(status));
+            } finally {
+                lock.unlock();
+            }
+            deliverEvents();
+        }
+
+        /**
+         * Whoever holds the listener lock delivers the queued events; callers that find it taken leave their
+         * events to the holder, which checks for new ones after releasing it.
+         */
+        private void deliverEvents() {
+            while (listenerLock.tryLock()) {
+                try {
+                    drainEvents();
+                } finally {
+                    listenerLock.unlock();
+                }
+                if (!hasEvents()) {
+                    return;
+                }
+            }
+        }
+
+        private void drainEvents() {
+            Runnable event;
+            while ((event = nextEvent()) != null) {
+                event.run();
+            }
+        }
+
+        private Runnable nextEvent() {
+            lock.lock();
             try {
-                MarketplaceClient client = marketplaceClientRegistry.getClient(marketplaceId);
-                List<SearchResultItem> items = client.search(profile);
-                allItems.addAll(items);
-            } catch (Exception e) {
-                // Log error but continue with other marketplaces
-                // You might want to log this properly
-                System.err.println("Failed to search marketplace " + marketplaceId + ": " + e.getMessage());
+                return events.poll();
+            } finally {
+                lock.unlock();
             }
         }
 
-        List<SearchResultItem> filtered = resultFilterService.applyFilters(profile, allItems);
-        return new SearchResult(profile.getId(), Instant.now(), filtered);
+        private boolean hasEvents() {
+            lock.lock();
+            try {
+                return !events.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        SearchResult toResult() {
+            // The listener has seen every event before the result is returned
+            listenerLock.lock();
+            try {
+                drainEvents();
+            } finally {
+                listenerLock.unlock();
+            }
+            lock.lock();
+            try {
+                List<SearchResultItem> items = new ArrayList<>();
+                matchingItems.forEach(items::addAll);
+                return new SearchResult(profile.getId(), Instant.now(), duplicateDetector.collapse(items),
+                        List.of(statuses), newItemCount);
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 }
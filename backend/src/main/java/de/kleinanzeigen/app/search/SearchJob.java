@@ -0,0 +1,27 @@
+package de.kleinanzeigen.app.search;
+
+import java.time.Instant;
+
+/**
+ * Manual execution submitted with {@code async=true}. The result is set once the job is {@code DONE}, the error
+ * once it {@code FAILED}.
+ */
+public record SearchJob(
+        String id,
+        Long searchProfileId,
+        boolean onlyNew,
+        Status status,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        SearchResult result,
+        String error
+) {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
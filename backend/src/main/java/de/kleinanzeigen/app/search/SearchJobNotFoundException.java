@@ -0,0 +1,8 @@
+package de.kleinanzeigen.app.search;
+
+public class SearchJobNotFoundException extends RuntimeException {
+
+    public SearchJobNotFoundException(String id) {
+        super("search job not found: " + id);
+    }
+}
@@ -0,0 +1,17 @@
+package de.kleinanzeigen.app.search;
+
+import java.time.Duration;
+
+public class SearchJobQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public SearchJobQueueFullException(int queuedJobs, Duration retryAfter) {
+        super("too many queued search jobs: " + queuedJobs);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,63 +1,579 @@
 package de.kleinanzeigen.app.search;
 
-import de.kleinanzeigen.app.searchprofile.SearchProfile;
-import de.kleinanzeigen.app.searchprofile.SearchProfileRepository;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.searchresult.ResultSearchIndex;
+import de.kleinanzeigen.app.searchresult.SearchResultStore;
+import de.kleinanzeigen.app.shared.LongHashSet;
+import de.kleinanzeigen.app.shared.TaskExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
+/**
+ * Runs every profile once per period from a single queue of due times, checked by one tick task.
+ * <p>
+ * Each profile gets a fixed phase within its period derived from its id, so profiles with the same frequency are
+ * spread over the period instead of firing together, plus a small jitter per run. A due run waits while the
+ * global or a marketplace's concurrency limit is reached; a run that is due while the previous one is still going
+ * is skipped.
+ * <p>
+ * Profiles with frequency bounds poll adaptively: the interval follows the rate of new items per run, so quiet
+ * queries use less of the per-host request budget and busy ones are checked more often. New means not returned
+ * by the previous scheduled run; the seen set shared with manual and streamed runs would hide items those runs
+ * found first.
+ * <p>
+ * Manual runs submitted as {@link SearchJob}s wait in a bounded FIFO queue, count against the same limits and
+ * start before due scheduled runs. Finished jobs are kept for {@code manual-job-retention} to be fetched.
+ */
 @Component
 public class SearchJobScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(SearchJobScheduler.class);
 
-    private final SearchProfileRepository repository;
+    private static final Comparator<Due> DUE_ORDER = Comparator.comparingLong(Due::atMillis)
+            .thenComparingLong(due -> due.job().profileId);
+
+    private final SearchProfileCache profileCache;
     private final SearchExecutionService executionService;
-    private final TaskScheduler taskScheduler;
-    private final Map<Long, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    private final SearchResultStore resultStore;
+    private final ResultSearchIndex searchIndex;
+    private final SchedulerProperties properties;
+    private final Clock clock;
+    private final Executor runExecutor;
+    private final Counter skippedRuns;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // Runs store their results under the read lock, cancelProfile waits for them with the write lock
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private final Map<Long, Job> jobs = new HashMap<>();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(DUE_ORDER);
+    private final Set<Long> runningProfiles = new HashSet<>();
+    private final Map<String, Integer> runningPerMarketplace = new HashMap<>();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final ArrayDeque<ManualRun> manualQueue = new ArrayDeque<>();
+    private final Map<String, ManualRun> manualRuns = new HashMap<>();
+    private final Map<ManualKey, ManualRun> activeManualRuns = new HashMap<>();
+    private ThreadPoolTaskScheduler ticker;
+
+    @Autowired
+    public SearchJobScheduler(SearchProfileCache profileCache, SearchExecutionService executionService,
+            SearchResultStore resultStore, ResultSearchIndex searchIndex, MeterRegistry meterRegistry,
+            SchedulerProperties properties, @Value(TaskExecutors.VIRTUAL_THREADS) boolean virtualThreads) {
+        this(profileCache, executionService, resultStore, searchIndex, meterRegistry,
+                virtualThreads ? properties.forVirtualThreads() : properties, Clock.systemUTC(),
+                runExecutor(properties, virtualThreads));
+    }
 
-    public SearchJobScheduler(SearchProfileRepository repository, SearchExecutionService executionService) {
-        this.repository = repository;
+    SearchJobScheduler(SearchProfileCache profileCache, SearchExecutionService executionService,
+            SearchResultStore resultStore, ResultSearchIndex searchIndex, MeterRegistry meterRegistry,
+            SchedulerProperties properties, Clock clock, Executor runExecutor) {
+        this.profileCache = profileCache;
         this.executionService = executionService;
-        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-        scheduler.setPoolSize(4);
-        scheduler.setThreadNamePrefix("search-job-");
-        scheduler.initialize();
-        this.taskScheduler = scheduler;
+        this.resultStore = resultStore;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+        this.clock = clock;
+        this.runExecutor = runExecutor;
+        Gauge.builder("search.jobs.in.flight", runningJobs, AtomicInteger::get)
+                .description("Scheduled and manual profile runs currently executing")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("search.jobs.skipped")
+                .description("Runs skipped because the previous run of the profile was still going")
+                .register(meterRegistry);
+    }
+
+    /**
+     * On virtual threads a run waiting on the network or a rate limit does not hold a platform thread, so the
+     * scheduler allows {@code virtual-thread-max-concurrent-runs} instead of {@code max-concurrent-runs}.
+     */
+    private static ExecutorService runExecutor(SchedulerProperties properties, boolean virtualThreads) {
+        if (virtualThreads) {
+            return TaskExecutors.newPerTaskExecutor("search-job-", true);
+        }
+        return Executors.newFixedThreadPool(properties.maxConcurrentRuns(),
+                Thread.ofPlatform().name("search-job-", 1).factory());
     }
 
     @PostConstruct
     void init() {
-        repository.findAll().forEach(this::scheduleProfile);
+        List<SearchProfileSnapshot> profiles = profileCache.loadAll();
+        profiles.forEach(this::scheduleProfile);
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("search-dispatch-");
+        scheduler.initialize();
+        scheduler.scheduleAtFixedRate(this::dispatchDue, properties.tick());
+        this.ticker = scheduler;
+        log.info("Scheduled {} search profiles", profiles.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.shutdown();
+        }
+        if (runExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public void scheduleProfile(SearchProfileSnapshot profile) {
+        schedule(profile.id(), Duration.ofMinutes(profile.frequencyMinutes()),
+                Duration.ofMinutes(profile.minFrequencyMinutes()), Duration.ofMinutes(profile.maxFrequencyMinutes()),
+                profile.marketplaceIds());
+        log.debug("Scheduled search profile {} to run every {} minutes", profile.id(), profile.frequencyMinutes());
+    }
+
+    /**
+     * Drops the profile's schedule. A run still in flight does not store its results anymore; once this returns,
+     * no results of the profile are written, so they can be deleted.
+     */
+    public void cancelProfile(Long profileId) {
+        lock.lock();
+        try {
+            // Its entry in the queue is dropped when it comes up
+            if (jobs.remove(profileId) != null) {
+                log.info("Cancelled schedule for search profile {}", profileId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        storeLock.writeLock().lock();
+        storeLock.writeLock().unlock();
+    }
+
+    void schedule(Long profileId, Duration period, List<String> marketplaceIds) {
+        schedule(profileId, period, period, period, marketplaceIds);
+    }
+
+    void schedule(Long profileId, Duration period, Duration minPeriod, Duration maxPeriod,
+            List<String> marketplaceIds) {
+        Job job = new Job(profileId, period.toMillis(), minPeriod.toMillis(), maxPeriod.toMillis(),
+                List.copyOf(marketplaceIds));
+        lock.lock();
+        try {
+            jobs.put(profileId, job);
+            enqueueNext(job, clock.millis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a manual run of the profile, or returns the job that is already queued or running for it.
+     *
+     * @throws SearchJobQueueFullException when {@code max-queued-manual-runs} jobs are waiting
+     */
+    public SearchJob submit(SearchProfileSnapshot profile, boolean onlyNew) {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            purgeManualRuns(now);
+            ManualKey key = new ManualKey(profile.id(), onlyNew);
+            ManualRun active = activeManualRuns.get(key);
+            if (active != null) {
+                return active.toJob();
+            }
+            if (manualQueue.size() >= properties.maxQueuedManualRuns()) {
+                throw new SearchJobQueueFullException(manualQueue.size(), properties.manualRetryAfter());
+            }
+            ManualRun run = new ManualRun(UUID.randomUUID().toString(), profile, onlyNew, now);
+            manualRuns.put(run.id, run);
+            activeManualRuns.put(key, run);
+            manualQueue.add(run);
+            startManualRuns(now);
+            return run.toJob();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Optional<SearchJob> job(String jobId) {
+        lock.lock();
+        try {
+            purgeManualRuns(clock.millis());
+            ManualRun run = manualRuns.get(jobId);
+            return run != null ? Optional.of(run.toJob()) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current interval between runs of the profile, which only differs from its frequency in adaptive mode.
+     */
+    public Optional<Duration> effectiveInterval(Long profileId) {
+        lock.lock();
+        try {
+            Job job = jobs.get(profileId);
+            return job != null ? Optional.of(Duration.ofMillis(job.periodMillis)) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Optional<Instant> nextRunAt(Long profileId) {
+        lock.lock();
+        try {
+            Job job = jobs.get(profileId);
+            return job != null ? Optional.of(Instant.ofEpochMilli(job.nextDueMillis)) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the runs that are due. Runs held back by a concurrency limit keep their due time, so they come
+     * first on the next tick.
+     */
+    void dispatchDue() {
+        lock.lock();
+        try {
+            long now = clock.millis();
+            startManualRuns(now);
+            List<Due> waiting = new ArrayList<>();
+            while (!queue.isEmpty() && queue.peek().atMillis() <= now
+                    && runningJobs.get() < properties.maxConcurrentRuns()) {
+                Due due = queue.poll();
+                Job job = due.job();
+                // Entries of cancelled jobs and of due times replaced after an interval change
+                if (jobs.get(job.profileId) != job || job.nextDueMillis != due.atMillis()) {
+                    continue;
+                }
+                if (runningProfiles.contains(job.profileId)) {
+                    log.debug("Skipping run of search profile {}, the previous run is still going", job.profileId);
+                    skippedRuns.increment();
+                    enqueueNext(job, now);
+                } else if (!marketplacesAvailable(job.marketplaceIds)) {
+                    waiting.add(due);
+                } else {
+                    start(job, now);
+                    enqueueNext(job, now);
+                }
+            }
+            queue.addAll(waiting);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void start(Job job, long now) {
+        job.previousStartMillis = job.lastStartMillis;
+        job.lastStartMillis = now;
+        reserve(job.profileId, job.marketplaceIds);
+        try {
+            runExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not start search profile {}: {}", job.profileId, e.getMessage());
+            finish(job, -1);
+        }
+    }
+
+    private void run(Job job) {
+        int newItems = -1;
+        try {
+            SearchResult result = executionService.execute(job.profileId);
+            if (job.isAdaptive()) {
+                newItems = job.countNewItems(result.items());
+            }
+            store(job, result);
+        } catch (Exception ex) {
+            log.error("Failed to execute search profile {}", job.profileId, ex);
+        } finally {
+            finish(job, newItems);
+        }
+    }
+
+    private void store(Job job, SearchResult result) {
+        storeLock.readLock().lock();
+        try {
+            if (!isScheduled(job)) {
+                log.debug("Dropping results of search profile {}, its schedule was cancelled or replaced",
+                        job.profileId);
+                return;
+            }
+            resultStore.upsert(job.profileId, result.items(), result.executedAt());
+            searchIndex.index(job.profileId, result.items(), result.executedAt());
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    private boolean isScheduled(Job job) {
+        lock.lock();
+        try {
+            return jobs.get(job.profileId) == job;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public void scheduleProfile(SearchProfile profile) {
-        cancelProfile(profile.getId());
-        Runnable task = () -> {
+    /**
+     * {@code newItems} is negative when the run failed or the job does not poll adaptively.
+     */
+    private void finish(Job job, int newItems) {
+        lock.lock();
+        try {
+            release(job.profileId, job.marketplaceIds);
+            if (newItems >= 0 && jobs.get(job.profileId) == job) {
+                adapt(job, newItems);
+            }
+            startManualRuns(clock.millis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts queued manual runs in submission order as far as the limits allow. A run whose profile or
+     * marketplaces are busy does not block the runs behind it.
+     */
+    private void startManualRuns(long now) {
+        Iterator<ManualRun> waiting = manualQueue.iterator();
+        while (waiting.hasNext() && runningJobs.get() < properties.maxConcurrentRuns()) {
+            ManualRun run = waiting.next();
+            if (runningProfiles.contains(run.profile.id()) || !marketplacesAvailable(run.profile.marketplaceIds())) {
+                continue;
+            }
+            waiting.remove();
+            run.startedMillis = now;
+            reserve(run.profile.id(), run.profile.marketplaceIds());
             try {
-                executionService.execute(profile.getId());
-            } catch (Exception ex) {
-                log.error("Failed to execute search profile {}", profile.getId(), ex);
+                runExecutor.execute(() -> runManual(run));
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not start search job {}: {}", run.id, e.getMessage());
+                complete(run, null, e.getMessage());
             }
-        };
-        long periodMillis = Duration.ofMinutes(profile.getFrequencyMinutes()).toMillis();
-        ScheduledFuture<?> future = taskScheduler.scheduleAtFixedRate(task, periodMillis);
-        scheduledTasks.put(profile.getId(), future);
-        log.info("Scheduled search profile {} to run every {} minutes", profile.getId(), profile.getFrequencyMinutes());
+        }
     }
 
-    public void cancelProfile(Long profileId) {
-        ScheduledFuture<?> future = scheduledTasks.remove(profileId);
-        if (future != null) {
-            future.cancel(false);
-            log.info("Cancelled schedule for search profile {}", profileId);
+    private void runManual(ManualRun run) {
+        SearchResult result = null;
+        String error = null;
+        try {
+            result = executionService.execute(run.profile, run.onlyNew);
+        } catch (Exception ex) {
+            log.error("Failed to execute search job {} for profile {}", run.id, run.profile.id(), ex);
+            error = ex.getMessage();
+        } finally {
+            finishManual(run, result, error);
+        }
+    }
+
+    private void finishManual(ManualRun run, SearchResult result, String error) {
+        lock.lock();
+        try {
+            complete(run, result, error);
+            startManualRuns(run.finishedMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(ManualRun run, SearchResult result, String error) {
+        release(run.profile.id(), run.profile.marketplaceIds());
+        run.finishedMillis = clock.millis();
+        run.result = result;
+        run.error = error;
+        activeManualRuns.remove(new ManualKey(run.profile.id(), run.onlyNew), run);
+    }
+
+    private void purgeManualRuns(long now) {
+        long retention = properties.manualJobRetention().toMillis();
+        manualRuns.values().removeIf(run -> run.finishedMillis >= 0 && now - run.finishedMillis > retention);
+    }
+
+    private void reserve(Long profileId, List<String> marketplaceIds) {
+        runningProfiles.add(profileId);
+        runningJobs.incrementAndGet();
+        for (String marketplaceId : marketplaceIds) {
+            runningPerMarketplace.merge(marketplaceId, 1, Integer::sum);
+        }
+    }
+
+    private void release(Long profileId, List<String> marketplaceIds) {
+        runningProfiles.remove(profileId);
+        runningJobs.decrementAndGet();
+        for (String marketplaceId : marketplaceIds) {
+            runningPerMarketplace.merge(marketplaceId, -1, Integer::sum);
+        }
+    }
+
+    private boolean marketplacesAvailable(List<String> marketplaceIds) {
+        for (String marketplaceId : marketplaceIds) {
+            if (runningPerMarketplace.getOrDefault(marketplaceId, 0) >= properties.limitFor(marketplaceId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates the job's EWMA of new items per minute and derives the interval that yields about
+     * {@code targetNewItemsPerRun} per run. The first run after scheduling only sets the baseline: after a
+     * restart or a profile change every item counts as new.
+     */
+    private void adapt(Job job, int newItems) {
+        if (job.previousStartMillis < 0) {
+            return;
+        }
+        double minutes = Math.max(1, job.lastStartMillis - job.previousStartMillis) / 60_000.0;
+        double sample = newItems / minutes;
+        job.newItemsPerMinute = Double.isNaN(job.newItemsPerMinute)
+                ? sample
+                : properties.adaptiveSmoothing() * sample
+                        + (1 - properties.adaptiveSmoothing()) * job.newItemsPerMinute;
+
+        long wanted = job.newItemsPerMinute > 0
+                ? Math.round(properties.targetNewItemsPerRun() / job.newItemsPerMinute * 60_000)
+                : job.maxPeriodMillis;
+        // Whole minutes like the configured frequencies
+        long periodMillis = Math.clamp(Math.round(wanted / 60_000.0) * 60_000, job.minPeriodMillis,
+                job.maxPeriodMillis);
+        if (periodMillis != job.periodMillis) {
+            log.debug("Search profile {} now runs every {} minutes ({} new items per hour)", job.profileId,
+                    periodMillis / 60_000, Math.round(job.newItemsPerMinute * 60));
+            job.periodMillis = periodMillis;
+            enqueueNext(job, job.lastStartMillis);
+        }
+    }
+
+    /**
+     * Queues the first slot of the job after {@code now}; slots missed while a run was held back are dropped.
+     */
+    private void enqueueNext(Job job, long now) {
+        long phase = Math.floorMod(mix(job.profileId), job.periodMillis);
+        long slot = now - Math.floorMod(now - phase, job.periodMillis) + job.periodMillis;
+        long maxJitter = Math.min(properties.maxJitter().toMillis(), job.periodMillis / 10);
+        long jitter = maxJitter > 0 ? Math.floorMod(mix(job.profileId ^ slot), maxJitter + 1) : 0;
+        job.nextDueMillis = slot + jitter;
+        queue.add(new Due(slot + jitter, job));
+    }
+
+    private static long mix(long value) {
+        long z = value * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Due(long atMillis, Job job) {
+    }
+
+    private record ManualKey(Long profileId, boolean onlyNew) {
+    }
+
+    private static final class ManualRun {
+
+        private final String id;
+        private final SearchProfileSnapshot profile;
+        private final boolean onlyNew;
+        private final long submittedMillis;
+        private long startedMillis = -1;
+        private long finishedMillis = -1;
+        private SearchResult result;
+        private String error;
+
+        ManualRun(String id, SearchProfileSnapshot profile, boolean onlyNew, long submittedMillis) {
+            this.id = id;
+            this.profile = profile;
+            this.onlyNew = onlyNew;
+            this.submittedMillis = submittedMillis;
+        }
+
+        SearchJob toJob() {
+            SearchJob.Status status;
+            if (finishedMillis >= 0) {
+                status = result != null ? SearchJob.Status.DONE : SearchJob.Status.FAILED;
+            } else {
+                status = startedMillis >= 0 ? SearchJob.Status.RUNNING : SearchJob.Status.QUEUED;
+            }
+            return new SearchJob(id, profile.id(), onlyNew, status, Instant.ofEpochMilli(submittedMillis),
+                    toInstant(startedMillis), toInstant(finishedMillis), result, error);
+        }
+
+        private static Instant toInstant(long millis) {
+            return millis >= 0 ? Instant.ofEpochMilli(millis) : null;
+        }
+    }
+
+    private static final class Job {
+
+        private final Long profileId;
+        private final long minPeriodMillis;
+        private final long maxPeriodMillis;
+        private final List<String> marketplaceIds;
+        private long periodMillis;
+        private long nextDueMillis;
+        private long lastStartMillis = -1;
+        private long previousStartMillis = -1;
+        private double newItemsPerMinute = Double.NaN;
+        // Offers returned by the last scheduled run, only touched by the job's own runs which never overlap
+        private LongHashSet lastRunOffers = new LongHashSet();
+
+        Job(Long profileId, long periodMillis, long minPeriodMillis, long maxPeriodMillis,
+                List<String> marketplaceIds) {
+            this.profileId = profileId;
+            this.periodMillis = periodMillis;
+            this.minPeriodMillis = minPeriodMillis;
+            this.maxPeriodMillis = maxPeriodMillis;
+            this.marketplaceIds = marketplaceIds;
+        }
+
+        boolean isAdaptive() {
+            return minPeriodMillis < maxPeriodMillis;
+        }
+
+        /**
+         * Offers among {@code items}, including merged alternatives, that the previous run did not return.
+         */
+        int countNewItems(List<SearchResultItem> items) {
+            LongHashSet offers = new LongHashSet(Math.max(8, lastRunOffers.size()));
+            int newItems = 0;
+            for (SearchResultItem item : items) {
+                newItems += countNew(offers, ItemFingerprint.of(item));
+                for (OfferLink alternative : item.alternatives()) {
+                    newItems += countNew(offers, ItemFingerprint.of(alternative.marketplaceId(), alternative.id()));
+                }
+            }
+            lastRunOffers = offers;
+            return newItems;
+        }
+
+        private int countNew(LongHashSet offers, long fingerprint) {
+            return offers.add(fingerprint) && !lastRunOffers.contains(fingerprint) ? 1 : 0;
         }
     }
 }
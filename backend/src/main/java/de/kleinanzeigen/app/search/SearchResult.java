@@ -6,6 +6,8 @@ import java.util.List;
 public record SearchResult(
         Long searchProfileId,
         Instant executedAt,
-        List<SearchResultItem> items
+        List<SearchResultItem> items,
+        List<MarketplaceStatus> marketplaces,
+        int newItemCount
 ) {
 }
@@ -1,7 +1,9 @@
 package de.kleinanzeigen.app.search;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
 public record SearchResultItem(
         String id,
@@ -9,6 +11,24 @@ public record SearchResultItem(
         String url,
         BigDecimal price,
         String location,
-        Instant publishedAt
+        Instant publishedAt,
+        String marketplaceId,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<OfferLink> alternatives
 ) {
+
+    public SearchResultItem {
+        alternatives = alternatives != null ? List.copyOf(alternatives) : List.of();
+    }
+
+    public SearchResultItem(String id, String title, String url, BigDecimal price, String location,
+            Instant publishedAt, String marketplaceId) {
+        this(id, title, url, price, location, publishedAt, marketplaceId, List.of());
+    }
+
+    /**
+     * Same offer listing other offers of the product, see {@link NearDuplicateDetector}.
+     */
+    public SearchResultItem withAlternatives(List<OfferLink> alternatives) {
+        return new SearchResultItem(id, title, url, price, location, publishedAt, marketplaceId, alternatives);
+    }
 }
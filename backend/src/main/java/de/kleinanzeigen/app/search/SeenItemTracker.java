@@ -0,0 +1,94 @@
+package de.kleinanzeigen.app.search;
+
+import de.kleinanzeigen.app.shared.LongHashSet;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers which items a profile has already returned, as 64-bit fingerprints in primitive long sets.
+ * Every profile keeps two generations: lookups consult both, inserts go to the current one and the older
+ * generation is dropped on rotation. Items not seen again within two generations are forgotten, which
+ * bounds each profile to {@code maxSeenItemsPerProfile} entries and roughly {@code maxSeenItemAge}. Rotation
+ * happens before a batch, so a generation can exceed its half of the entries by one batch.
+ */
+@Component
+public class SeenItemTracker {
+
+    private final Map<Long, ProfileSeenItems> profiles = new ConcurrentHashMap<>();
+    private final int generationCapacity;
+    private final long generationMillis;
+    private final Clock clock;
+
+    @Autowired
+    public SeenItemTracker(IncrementalSearchProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public SeenItemTracker(IncrementalSearchProperties properties, Clock clock) {
+        this.generationCapacity = Math.max(1, properties.maxSeenItemsPerProfile() / 2);
+        this.generationMillis = Math.max(1, properties.maxSeenItemAge().toMillis() / 2);
+        this.clock = clock;
+    }
+
+    /**
+     * Records the given items as seen for the profile and returns those that were not seen before.
+     */
+    public List<SearchResultItem> retainUnseen(Long profileId, List<SearchResultItem> items) {
+        if (profileId == null) {
+            return items;
+        }
+        ProfileSeenItems seenItems = profiles.computeIfAbsent(profileId, id -> new ProfileSeenItems(clock.millis()));
+        return seenItems.retainUnseen(items, clock.millis());
+    }
+
+    public void forget(Long profileId) {
+        profiles.remove(profileId);
+    }
+
+    private final class ProfileSeenItems {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private LongHashSet current = new LongHashSet();
+        private LongHashSet previous = new LongHashSet();
+        private long generationStartedAt;
+
+        private ProfileSeenItems(long now) {
+            this.generationStartedAt = now;
+        }
+
+        List<SearchResultItem> retainUnseen(List<SearchResultItem> items, long now) {
+            lock.lock();
+            try {
+                // Only between batches: rotating within one would drop fingerprints of this and the last run
+                if (now - generationStartedAt >= generationMillis || current.size() >= generationCapacity) {
+                    rotate(now);
+                }
+                List<SearchResultItem> unseen = new ArrayList<>();
+                for (SearchResultItem item : items) {
+                    long fingerprint = ItemFingerprint.of(item);
+                    boolean seenBefore = current.contains(fingerprint) || previous.contains(fingerprint);
+                    // Re-seen items move into the current generation so that they survive the next rotation
+                    current.add(fingerprint);
+                    if (!seenBefore) {
+                        unseen.add(item);
+                    }
+                }
+                return unseen;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void rotate(long now) {
+            previous = current;
+            current = new LongHashSet();
+            generationStartedAt = now;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.kleinanzeigen.app.search;
+
+import java.util.Arrays;
+
+/**
+ * SimHash of the words of a listing title plus a signature of the numbers in it. Titles of the same product
+ * from different shops end up a few bits apart; volumes of one series only differ in their number, which the
+ * SimHash barely notices, so the numbers are compared exactly.
+ */
+record TitleFingerprint(long simHash, long numberSignature, boolean hasWords) {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    static TitleFingerprint of(String title) {
+        if (title == null) {
+            return new TitleFingerprint(0, 0, false);
+        }
+        int[] weights = new int[64];
+        long[] numbers = new long[8];
+        int numberCount = 0;
+        boolean hasWords = false;
+        int length = title.length();
+        int i = 0;
+        while (i < length) {
+            char c = title.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean digits = Character.isDigit(c);
+            while (i < length && Character.isLetterOrDigit(title.charAt(i))
+                    && Character.isDigit(title.charAt(i)) == digits) {
+                i++;
+            }
+            if (digits) {
+                long number = parseNumber(title, start, i);
+                // Four digit years are edition details, "Band 01" and "Band 1" are the same volume
+                if (number >= 0 && !(i - start == 4 && number >= 1900 && number <= 2099)) {
+                    if (numberCount == numbers.length) {
+                        numbers = Arrays.copyOf(numbers, numberCount * 2);
+                    }
+                    numbers[numberCount++] = number;
+                }
+            } else if (i - start > 1) {
+                hasWords = true;
+                long feature = hashWord(title, start, i);
+                for (int bit = 0; bit < 64; bit++) {
+                    weights[bit] += ((feature >>> bit) & 1) != 0 ? 1 : -1;
+                }
+            }
+        }
+
+        long simHash = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        Arrays.sort(numbers, 0, numberCount);
+        long numberSignature = FNV_OFFSET_BASIS;
+        for (int n = 0; n < numberCount; n++) {
+            if (n == 0 || numbers[n] != numbers[n - 1]) {
+                numberSignature = (numberSignature ^ numbers[n]) * FNV_PRIME;
+            }
+        }
+        return new TitleFingerprint(simHash, numberSignature, hasWords);
+    }
+
+    int distance(TitleFingerprint other) {
+        return Long.bitCount(simHash ^ other.simHash);
+    }
+
+    private static long parseNumber(String title, int start, int end) {
+        long number = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(title.charAt(i), 10);
+            if (digit < 0 || number > (Long.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            number = number * 10 + digit;
+        }
+        return number;
+    }
+
+    private static long hashWord(String title, int start, int end) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash = (hash ^ Character.toLowerCase(title.charAt(i))) * FNV_PRIME;
+        }
+        // MurmurHash3 fmix64, FNV alone leaves the high bits of short words poorly mixed
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
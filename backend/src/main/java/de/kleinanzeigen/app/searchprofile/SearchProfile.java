@@ -2,12 +2,17 @@ package de.kleinanzeigen.app.searchprofile;
 
 import jakarta.persistence.AttributeOverride;
 import jakarta.persistence.AttributeOverrides;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -47,6 +52,39 @@ public class SearchProfile {
     @Column(name = "frequency_minutes", nullable = false)
     private Integer frequencyMinutes;
 
+    // Bounds of the adaptive polling interval, both null for a fixed interval
+    @Column(name = "min_frequency_minutes")
+    private Integer minFrequencyMinutes;
+
+    @Column(name = "max_frequency_minutes")
+    private Integer maxFrequencyMinutes;
+
+    // Keyword and location lists are comma separated like the marketplace ids
+    @Column(name = "required_keywords", length = 1024)
+    private String requiredKeywords;
+
+    @Column(name = "excluded_keywords", length = 1024)
+    private String excludedKeywords;
+
+    @Column(name = "included_locations", length = 1024)
+    private String includedLocations;
+
+    @Column(name = "excluded_locations", length = 1024)
+    private String excludedLocations;
+
+    @Positive
+    @Column(name = "published_within_hours")
+    private Integer publishedWithinHours;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "search_profile_price_overrides", joinColumns = @JoinColumn(name = "profile_id"))
+    @MapKeyColumn(name = "marketplace_id", length = 64)
+    @AttributeOverrides({
+            @AttributeOverride(name = "value.min", column = @Column(name = "min_price")),
+            @AttributeOverride(name = "value.max", column = @Column(name = "max_price"))
+    })
+    private java.util.Map<String, PriceRange> priceOverrides = new java.util.HashMap<>();
+
     protected SearchProfile() {
         // for JPA
     }
@@ -97,6 +135,60 @@ public class SearchProfile {
         return frequencyMinutes;
     }
 
+    public Integer getMinFrequencyMinutes() {
+        return minFrequencyMinutes;
+    }
+
+    public Integer getMaxFrequencyMinutes() {
+        return maxFrequencyMinutes;
+    }
+
+    public boolean isAdaptiveFrequency() {
+        return minFrequencyMinutes != null && maxFrequencyMinutes != null;
+    }
+
+    public java.util.List<String> getRequiredKeywords() {
+        return split(requiredKeywords);
+    }
+
+    public java.util.List<String> getExcludedKeywords() {
+        return split(excludedKeywords);
+    }
+
+    public java.util.List<String> getIncludedLocations() {
+        return split(includedLocations);
+    }
+
+    public java.util.List<String> getExcludedLocations() {
+        return split(excludedLocations);
+    }
+
+    public Integer getPublishedWithinHours() {
+        return publishedWithinHours;
+    }
+
+    /**
+     * Price ranges that replace {@link #getPriceRange()} for single marketplaces.
+     */
+    public java.util.Map<String, PriceRange> getPriceOverrides() {
+        return java.util.Collections.unmodifiableMap(priceOverrides);
+    }
+
+    public void updateFilters(java.util.List<String> requiredKeywords, java.util.List<String> excludedKeywords,
+            java.util.List<String> includedLocations, java.util.List<String> excludedLocations,
+            Integer publishedWithinHours, java.util.Map<String, PriceRange> priceOverrides) {
+        this.requiredKeywords = join(requiredKeywords);
+        this.excludedKeywords = join(excludedKeywords);
+        this.includedLocations = join(includedLocations);
+        this.excludedLocations = join(excludedLocations);
+        this.publishedWithinHours = publishedWithinHours;
+        // Modify in place, Hibernate tracks the collection instance
+        this.priceOverrides.clear();
+        if (priceOverrides != null) {
+            this.priceOverrides.putAll(priceOverrides);
+        }
+    }
+
     public void update(String name, String query, String category, java.util.List<String> marketplaceIds,
             PriceRange priceRange, Integer frequencyMinutes) {
         this.name = name;
@@ -106,4 +198,31 @@ public class SearchProfile {
         this.priceRange = priceRange;
         this.frequencyMinutes = frequencyMinutes;
     }
+
+    /**
+     * Lets the scheduler move the interval between the bounds; {@code null} bounds switch back to the fixed
+     * {@link #getFrequencyMinutes()}.
+     */
+    public void updateFrequencyBounds(Integer minFrequencyMinutes, Integer maxFrequencyMinutes) {
+        this.minFrequencyMinutes = minFrequencyMinutes;
+        this.maxFrequencyMinutes = maxFrequencyMinutes;
+    }
+
+    private static String join(java.util.List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        String joined = values.stream()
+                .map(String::strip)
+                .filter(value -> !value.isEmpty())
+                .collect(java.util.stream.Collectors.joining(","));
+        return joined.isEmpty() ? null : joined;
+    }
+
+    private static java.util.List<String> split(String values) {
+        if (values == null || values.isBlank()) {
+            return java.util.Collections.emptyList();
+        }
+        return java.util.Arrays.asList(values.split(","));
+    }
 }
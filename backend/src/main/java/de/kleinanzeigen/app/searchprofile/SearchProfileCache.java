@@ -0,0 +1,79 @@
+package de.kleinanzeigen.app.searchprofile;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-through cache of {@link SearchProfileSnapshot}s, so scheduled runs do not load their profile from the
+ * database every time. Every change to a profile has to {@link #evict} it.
+ */
+@Component
+public class SearchProfileCache {
+
+    private final SearchProfileRepository repository;
+    private final ConcurrentMap<Long, SearchProfileSnapshot> snapshots = new ConcurrentHashMap<>();
+    // Counts evictions, a load that overlapped one may hold the old state and is not kept
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SearchProfileCache(SearchProfileRepository repository) {
+        this.repository = repository;
+    }
+
+    public Optional<SearchProfileSnapshot> get(Long profileId) {
+        SearchProfileSnapshot cached = snapshots.get(profileId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long evictionsBefore = evictions.get();
+        Optional<SearchProfileSnapshot> loaded = repository.findById(profileId).map(SearchProfileSnapshot::of);
+        loaded.ifPresent(snapshot -> keep(profileId, snapshot, evictionsBefore));
+        return loaded;
+    }
+
+    /**
+     * Loads all profiles with one query and caches them.
+     */
+    public List<SearchProfileSnapshot> loadAll() {
+        long evictionsBefore = evictions.get();
+        List<SearchProfileSnapshot> loaded = repository.findAll().stream()
+                .map(SearchProfileSnapshot::of)
+                .toList();
+        loaded.forEach(snapshot -> keep(snapshot.id(), snapshot, evictionsBefore));
+        return loaded;
+    }
+
+    /**
+     * Drops the profile now and, inside a transaction, once more after it completed: a read before the commit
+     * would otherwise cache the old state again.
+     */
+    public void evict(Long profileId) {
+        remove(profileId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(profileId);
+                }
+            });
+        }
+    }
+
+    private void keep(Long profileId, SearchProfileSnapshot snapshot, long evictionsBefore) {
+        snapshots.putIfAbsent(profileId, snapshot);
+        // Checked after the put, so an eviction is either seen here or removes the entry itself
+        if (evictions.get() != evictionsBefore) {
+            snapshots.remove(profileId, snapshot);
+        }
+    }
+
+    private void remove(Long profileId) {
+        evictions.incrementAndGet();
+        snapshots.remove(profileId);
+    }
+}
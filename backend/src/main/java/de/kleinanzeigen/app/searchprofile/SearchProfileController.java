@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -21,11 +22,14 @@ public class SearchProfileController {
 
     private final SearchProfileService service;
     private final de.kleinanzeigen.app.search.SearchExecutionService executionService;
+    private final de.kleinanzeigen.app.search.SearchJobScheduler jobScheduler;
 
     public SearchProfileController(SearchProfileService service,
-            de.kleinanzeigen.app.search.SearchExecutionService executionService) {
+            de.kleinanzeigen.app.search.SearchExecutionService executionService,
+            de.kleinanzeigen.app.search.SearchJobScheduler jobScheduler) {
         this.service = service;
         this.executionService = executionService;
+        this.jobScheduler = jobScheduler;
     }
 
     @GetMapping
@@ -56,7 +60,17 @@ public class SearchProfileController {
     }
 
     @PostMapping("/{id}/execute")
-    public de.kleinanzeigen.app.search.SearchResult execute(@PathVariable Long id) {
-        return executionService.execute(id);
+    public de.kleinanzeigen.app.search.SearchResult execute(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean onlyNew) {
+        return executionService.execute(id, onlyNew);
+    }
+
+    @PostMapping(value = "/{id}/execute", params = "async=true")
+    public ResponseEntity<de.kleinanzeigen.app.search.SearchJob> submit(@PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean onlyNew) {
+        de.kleinanzeigen.app.search.SearchJob job = jobScheduler.submit(executionService.snapshot(id), onlyNew);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/search/jobs/" + job.id()))
+                .body(job);
     }
 }
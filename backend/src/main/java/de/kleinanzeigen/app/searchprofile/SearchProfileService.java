@@ -1,21 +1,37 @@
 package de.kleinanzeigen.app.searchprofile;
 
 import de.kleinanzeigen.app.search.SearchJobScheduler;
+import de.kleinanzeigen.app.search.SeenItemTracker;
+import de.kleinanzeigen.app.searchprofile.dto.PriceOverride;
 import de.kleinanzeigen.app.searchprofile.dto.SearchProfileRequest;
 import de.kleinanzeigen.app.searchprofile.dto.SearchProfileResponse;
+import de.kleinanzeigen.app.searchresult.ResultSearchIndex;
+import de.kleinanzeigen.app.searchresult.SearchResultStore;
 import jakarta.transaction.Transactional;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SearchProfileService {
 
     private final SearchProfileRepository repository;
+    private final SearchProfileCache profileCache;
     private final SearchJobScheduler jobScheduler;
+    private final SearchResultStore resultStore;
+    private final SeenItemTracker seenItemTracker;
+    private final ResultSearchIndex searchIndex;
 
-    public SearchProfileService(SearchProfileRepository repository, SearchJobScheduler jobScheduler) {
+    public SearchProfileService(SearchProfileRepository repository, SearchProfileCache profileCache,
+            SearchJobScheduler jobScheduler, SearchResultStore resultStore, SeenItemTracker seenItemTracker,
+            ResultSearchIndex searchIndex) {
         this.repository = repository;
+        this.profileCache = profileCache;
         this.jobScheduler = jobScheduler;
+        this.resultStore = resultStore;
+        this.seenItemTracker = seenItemTracker;
+        this.searchIndex = searchIndex;
     }
 
     public List<SearchProfileResponse> findAll() {
@@ -42,8 +58,10 @@ public class SearchProfileService {
                 request.marketplaceIds(),
                 PriceRange.of(request.minPrice(), request.maxPrice()),
                 request.frequencyMinutes());
+        updateFilters(profile, request);
+        updateFrequencyBounds(profile, request);
         SearchProfile saved = repository.save(profile);
-        jobScheduler.scheduleProfile(saved);
+        jobScheduler.scheduleProfile(SearchProfileSnapshot.of(saved));
         return toResponse(saved);
     }
 
@@ -58,7 +76,14 @@ public class SearchProfileService {
                 request.marketplaceIds(),
                 PriceRange.of(request.minPrice(), request.maxPrice()),
                 request.frequencyMinutes());
-        jobScheduler.scheduleProfile(profile);
+        if (request.hasFilters()) {
+            updateFilters(profile, request);
+        }
+        if (request.adaptiveFrequency() != null) {
+            updateFrequencyBounds(profile, request);
+        }
+        profileCache.evict(id);
+        jobScheduler.scheduleProfile(SearchProfileSnapshot.of(profile));
         return toResponse(profile);
     }
 
@@ -68,11 +93,50 @@ public class SearchProfileService {
             throw new SearchProfileNotFoundException(id);
         }
         jobScheduler.cancelProfile(id);
+        profileCache.evict(id);
+        resultStore.deleteByProfile(id);
+        searchIndex.removeProfile(id);
+        seenItemTracker.forget(id);
         repository.deleteById(id);
     }
 
+    private static void updateFilters(SearchProfile profile, SearchProfileRequest request) {
+        Map<String, PriceRange> priceOverrides = new HashMap<>();
+        if (request.priceOverrides() != null) {
+            request.priceOverrides().forEach((marketplaceId, override) ->
+                    priceOverrides.put(marketplaceId, PriceRange.of(override.minPrice(), override.maxPrice())));
+        }
+        profile.updateFilters(
+                request.requiredKeywords(),
+                request.excludedKeywords(),
+                request.includedLocations(),
+                request.excludedLocations(),
+                request.publishedWithinHours(),
+                priceOverrides);
+    }
+
+    private static void updateFrequencyBounds(SearchProfile profile, SearchProfileRequest request) {
+        if (!Boolean.TRUE.equals(request.adaptiveFrequency())) {
+            profile.updateFrequencyBounds(null, null);
+            return;
+        }
+        Integer min = request.minFrequencyMinutes();
+        Integer max = request.maxFrequencyMinutes();
+        if (min == null || max == null) {
+            throw new IllegalArgumentException("adaptive frequency needs minFrequencyMinutes and maxFrequencyMinutes");
+        }
+        if (min > request.frequencyMinutes() || max < request.frequencyMinutes()) {
+            throw new IllegalArgumentException(
+                    "frequencyMinutes must lie between minFrequencyMinutes and maxFrequencyMinutes");
+        }
+        profile.updateFrequencyBounds(min, max);
+    }
+
     private SearchProfileResponse toResponse(SearchProfile profile) {
         PriceRange priceRange = profile.getPriceRange();
+        Map<String, PriceOverride> priceOverrides = new HashMap<>();
+        profile.getPriceOverrides().forEach((marketplaceId, override) ->
+                priceOverrides.put(marketplaceId, new PriceOverride(override.getMin(), override.getMax())));
         return new SearchProfileResponse(
                 profile.getId(),
                 profile.getName(),
@@ -81,6 +145,18 @@ public class SearchProfileService {
                 profile.getMarketplaceIds(),
                 priceRange != null ? priceRange.getMin() : null,
                 priceRange != null ? priceRange.getMax() : null,
-                profile.getFrequencyMinutes());
+                profile.getFrequencyMinutes(),
+                profile.getRequiredKeywords(),
+                profile.getExcludedKeywords(),
+                profile.getIncludedLocations(),
+                profile.getExcludedLocations(),
+                profile.getPublishedWithinHours(),
+                priceOverrides,
+                profile.isAdaptiveFrequency(),
+                profile.getMinFrequencyMinutes(),
+                profile.getMaxFrequencyMinutes(),
+                jobScheduler.effectiveInterval(profile.getId())
+                        .map(interval -> (int) interval.toMinutes())
+                        .orElse(null));
     }
 }
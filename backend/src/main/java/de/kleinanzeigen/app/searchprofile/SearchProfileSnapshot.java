@@ -0,0 +1,32 @@
+package de.kleinanzeigen.app.searchprofile;
+
+import de.kleinanzeigen.app.search.CompiledResultFilter;
+import java.util.List;
+
+/**
+ * Profile as the scheduler and the execution see it, with the marketplace list split and the result filter
+ * compiled once. The frequency bounds equal {@code frequencyMinutes} unless the profile polls adaptively.
+ * {@code profile} is a detached instance only referenced from here; it is handed to code that still takes a
+ * {@link SearchProfile} and must not be modified.
+ */
+public record SearchProfileSnapshot(
+        Long id,
+        List<String> marketplaceIds,
+        int frequencyMinutes,
+        int minFrequencyMinutes,
+        int maxFrequencyMinutes,
+        SearchProfile profile,
+        CompiledResultFilter filter
+) {
+
+    public static SearchProfileSnapshot of(SearchProfile profile) {
+        return new SearchProfileSnapshot(
+                profile.getId(),
+                List.copyOf(profile.getMarketplaceIds()),
+                profile.getFrequencyMinutes(),
+                profile.isAdaptiveFrequency() ? profile.getMinFrequencyMinutes() : profile.getFrequencyMinutes(),
+                profile.isAdaptiveFrequency() ? profile.getMaxFrequencyMinutes() : profile.getFrequencyMinutes(),
+                profile,
+                CompiledResultFilter.of(profile));
+    }
+}
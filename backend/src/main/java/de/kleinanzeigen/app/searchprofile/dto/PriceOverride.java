@@ -0,0 +1,8 @@
+package de.kleinanzeigen.app.searchprofile.dto;
+
+import java.math.BigDecimal;
+
+public record PriceOverride(
+                BigDecimal minPrice,
+                BigDecimal maxPrice) {
+}
@@ -3,8 +3,14 @@ package de.kleinanzeigen.app.searchprofile.dto;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 
+/**
+ * The filter fields are optional. An update that leaves out all of them keeps the profile's current filters,
+ * otherwise they are replaced as a whole. Likewise an update without {@code adaptiveFrequency} keeps the polling
+ * mode; with {@code true} the interval adapts between the frequency bounds.
+ */
 public record SearchProfileRequest(
                 @NotBlank String name,
                 @NotBlank String query,
@@ -12,5 +18,19 @@ public record SearchProfileRequest(
                 @NotNull java.util.List<String> marketplaceIds,
                 BigDecimal minPrice,
                 BigDecimal maxPrice,
-                @NotNull @Min(5) Integer frequencyMinutes) {
+                @NotNull @Min(5) Integer frequencyMinutes,
+                java.util.List<String> requiredKeywords,
+                java.util.List<String> excludedKeywords,
+                java.util.List<String> includedLocations,
+                java.util.List<String> excludedLocations,
+                @Positive Integer publishedWithinHours,
+                java.util.Map<String, PriceOverride> priceOverrides,
+                Boolean adaptiveFrequency,
+                @Min(5) Integer minFrequencyMinutes,
+                @Min(5) Integer maxFrequencyMinutes) {
+
+    public boolean hasFilters() {
+        return requiredKeywords != null || excludedKeywords != null || includedLocations != null
+                || excludedLocations != null || publishedWithinHours != null || priceOverrides != null;
+    }
 }
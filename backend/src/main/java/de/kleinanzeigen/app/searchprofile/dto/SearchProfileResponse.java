@@ -10,5 +10,15 @@ public record SearchProfileResponse(
                 java.util.List<String> marketplaceIds,
                 BigDecimal minPrice,
                 BigDecimal maxPrice,
-                Integer frequencyMinutes) {
+                Integer frequencyMinutes,
+                java.util.List<String> requiredKeywords,
+                java.util.List<String> excludedKeywords,
+                java.util.List<String> includedLocations,
+                java.util.List<String> excludedLocations,
+                Integer publishedWithinHours,
+                java.util.Map<String, PriceOverride> priceOverrides,
+                boolean adaptiveFrequency,
+                Integer minFrequencyMinutes,
+                Integer maxFrequencyMinutes,
+                Integer effectiveFrequencyMinutes) {
 }
@@ -0,0 +1,13 @@
+package de.kleinanzeigen.app.searchresult;
+
+import java.math.BigDecimal;
+
+public record MarketplaceResultSummary(
+        String marketplaceId,
+        int itemCount,
+        int pricedItemCount,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        BigDecimal averagePrice
+) {
+}
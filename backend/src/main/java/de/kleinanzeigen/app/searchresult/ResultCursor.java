@@ -0,0 +1,39 @@
+package de.kleinanzeigen.app.searchresult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+/**
+ * Position after a stored result in the page order (first seen descending, then marketplace and item id
+ * descending). Sent to clients as an opaque URL-safe token.
+ */
+public record ResultCursor(Instant firstSeen, String marketplaceId, String itemId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ResultCursor after(StoredSearchResultItem stored) {
+        return new ResultCursor(stored.firstSeen(), stored.item().marketplaceId(), stored.item().id());
+    }
+
+    public static ResultCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // Item ids may contain the separator, so they come last
+            String[] parts = value.split(Pattern.quote(SEPARATOR), 3);
+            if (parts.length == 3) {
+                return new ResultCursor(Instant.parse(parts[0]), parts[1], parts[2]);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor: " + token, e);
+        }
+        throw new IllegalArgumentException("invalid cursor: " + token);
+    }
+
+    public String encode() {
+        String value = firstSeen + SEPARATOR + marketplaceId + SEPARATOR + itemId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
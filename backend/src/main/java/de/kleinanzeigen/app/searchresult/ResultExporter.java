@@ -0,0 +1,62 @@
+package de.kleinanzeigen.app.searchresult;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the stored results of a profile as one JSON array in page order. Rows are read in keyset pages of
+ * {@code export-chunk-size} and written as they come, so neither all rows nor the whole document are held in
+ * memory.
+ */
+@Component
+public class ResultExporter {
+
+    private final SearchResultStore resultStore;
+    private final ObjectMapper objectMapper;
+    private final ResultPagingProperties properties;
+
+    public ResultExporter(SearchResultStore resultStore, ObjectMapper objectMapper,
+            ResultPagingProperties properties) {
+        this.resultStore = resultStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    /**
+     * Returns the number of results written. Leaves {@code out} open.
+     */
+    public int writeJson(Long profileId, PriceRange priceRange, String marketplaceId, OutputStream out)
+            throws IOException {
+        // Flushed once per chunk instead of after every item
+        ObjectWriter writer = objectMapper.writerFor(StoredSearchResultItem.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        int written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            ResultCursor after = null;
+            List<StoredSearchResultItem> page;
+            do {
+                page = resultStore.findPage(profileId, priceRange, marketplaceId, after,
+                        properties.exportChunkSize());
+                for (StoredSearchResultItem stored : page) {
+                    writer.writeValue(generator, stored);
+                }
+                written += page.size();
+                generator.flush();
+                if (!page.isEmpty()) {
+                    after = ResultCursor.after(page.get(page.size() - 1));
+                }
+            } while (page.size() == properties.exportChunkSize());
+            generator.writeEndArray();
+        }
+        return written;
+    }
+}
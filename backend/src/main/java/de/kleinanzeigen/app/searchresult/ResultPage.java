@@ -0,0 +1,12 @@
+package de.kleinanzeigen.app.searchresult;
+
+import java.util.List;
+
+/**
+ * One page of stored results; {@code nextCursor} is {@code null} on the last page.
+ */
+public record ResultPage(
+        List<StoredSearchResultItem> items,
+        String nextCursor
+) {
+}
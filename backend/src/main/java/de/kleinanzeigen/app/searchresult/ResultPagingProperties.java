@@ -0,0 +1,35 @@
+package de.kleinanzeigen.app.searchresult;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "search.results")
+public record ResultPagingProperties(
+        @DefaultValue("100") int defaultPageSize,
+        @DefaultValue("1000") int maxPageSize,
+        @DefaultValue("500") int exportChunkSize
+) {
+
+    public ResultPagingProperties {
+        if (defaultPageSize < 1 || maxPageSize < defaultPageSize) {
+            throw new IllegalArgumentException(
+                    "search.results page sizes must be positive with default-page-size <= max-page-size");
+        }
+        if (exportChunkSize < 1) {
+            throw new IllegalArgumentException("search.results.export-chunk-size must be positive");
+        }
+    }
+
+    /**
+     * The requested page size capped at {@code maxPageSize}, the default when none was requested.
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+}
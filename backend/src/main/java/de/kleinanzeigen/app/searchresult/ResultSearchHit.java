@@ -0,0 +1,9 @@
+package de.kleinanzeigen.app.searchresult;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+public record ResultSearchHit(
+        Long profileId,
+        @JsonUnwrapped StoredSearchResultItem result
+) {
+}
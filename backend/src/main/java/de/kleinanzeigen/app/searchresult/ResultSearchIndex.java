@@ -0,0 +1,299 @@
+package de.kleinanzeigen.app.searchresult;
+
+import de.kleinanzeigen.app.search.ResultBatch;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index over the titles of all stored results, kept in memory next to the table. Updated together
+ * with every {@link SearchResultStore#upsert} and rebuilt from the table on startup.
+ * <p>
+ * Documents get increasing ids, so every posting list is sorted and a query intersects them smallest first.
+ * Documents of deleted profiles are marked first; the index is compacted once they make up half of it or
+ * exceed {@code MAX_REMOVED_DOCUMENTS}.
+ */
+@Component
+public class ResultSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultSearchIndex.class);
+    private static final int MAX_REMOVED_DOCUMENTS = 1024;
+
+    private final SearchResultStore resultStore;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<DocumentKey, Integer> documentIds = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final BitSet removed = new BitSet();
+
+    public ResultSearchIndex(SearchResultStore resultStore) {
+        this.resultStore = resultStore;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            documentIds.clear();
+            postings.clear();
+            documents.clear();
+            removed.clear();
+            resultStore.forEachStored((profileId, stored) ->
+                    put(profileId, stored.item(), stored.firstSeen(), stored.lastSeen()));
+            log.info("Indexed {} stored results with {} terms", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Same semantics as the upsert: known items keep their first seen time.
+     */
+    public void index(Long profileId, List<SearchResultItem> items, Instant seenAt) {
+        lock.writeLock().lock();
+        try {
+            for (SearchResultItem item : items) {
+                put(profileId, item, seenAt, seenAt);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeProfile(Long profileId) {
+        lock.writeLock().lock();
+        try {
+            documentIds.entrySet().removeIf(entry -> {
+                if (entry.getKey().profileId().equals(profileId)) {
+                    removed.set(entry.getValue());
+                    return true;
+                }
+                return false;
+            });
+            if (removed.cardinality() * 2 >= documents.size()
+                    || removed.cardinality() >= MAX_REMOVED_DOCUMENTS) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stored results whose title contains every term of {@code query}, most recently seen first. Results
+     * without price or publication time are not excluded by the respective range.
+     */
+    public List<ResultSearchHit> search(ResultSearchQuery query) {
+        List<String> terms = TitleTokenizer.tokenize(query.text());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        long minCents = toCents(query.minPrice(), RoundingMode.CEILING, Long.MIN_VALUE);
+        long maxCents = toCents(query.maxPrice(), RoundingMode.FLOOR, Long.MAX_VALUE);
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            int[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+                candidateCount = intersect(candidates, candidateCount, lists[i]);
+            }
+
+            List<Document> matches = new ArrayList<>();
+            for (int i = 0; i < candidateCount; i++) {
+                int documentId = candidates[i];
+                Document document = documents.get(documentId);
+                if (!removed.get(documentId) && document.matches(query, minCents, maxCents)) {
+                    matches.add(document);
+                }
+            }
+            matches.sort(Comparator.comparing(Document::lastSeen).reversed());
+            return matches.stream()
+                    .limit(query.limit())
+                    .map(Document::toHit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents held by the index, including removed ones that were not compacted yet.
+     */
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Renumbers the remaining documents in their order, so the rebuilt posting lists stay sorted.
+     */
+    private void compact() {
+        List<Document> remaining = new ArrayList<>(documents.size() - removed.cardinality());
+        for (int documentId = removed.nextClearBit(0); documentId < documents.size();
+                documentId = removed.nextClearBit(documentId + 1)) {
+            remaining.add(documents.get(documentId));
+        }
+        documentIds.clear();
+        postings.clear();
+        documents.clear();
+        removed.clear();
+        for (Document document : remaining) {
+            append(new DocumentKey(document.profileId(), document.item().marketplaceId(), document.item().id()),
+                    document);
+        }
+    }
+
+    private void put(Long profileId, SearchResultItem item, Instant firstSeen, Instant lastSeen) {
+        DocumentKey key = new DocumentKey(profileId, item.marketplaceId(), item.id());
+        // Alternatives are not stored, the index shows what a reload from the table would show
+        SearchResultItem stored = item.alternatives().isEmpty() ? item : item.withAlternatives(List.of());
+        Integer documentId = documentIds.get(key);
+        if (documentId == null) {
+            append(key, new Document(profileId, stored, ResultBatch.toCents(stored.price()), firstSeen, lastSeen));
+            return;
+        }
+
+        Document previous = documents.get(documentId);
+        documents.set(documentId, new Document(profileId, stored, ResultBatch.toCents(stored.price()),
+                previous.firstSeen(), lastSeen));
+        if (!Objects.equals(previous.item().title(), stored.title())) {
+            List<String> newTerms = TitleTokenizer.tokenize(stored.title());
+            for (String term : TitleTokenizer.tokenize(previous.item().title())) {
+                if (!newTerms.contains(term)) {
+                    postings.get(term).remove(documentId);
+                }
+            }
+            for (String term : newTerms) {
+                postings.computeIfAbsent(term, ignored -> new Postings()).addSorted(documentId);
+            }
+        }
+    }
+
+    private void append(DocumentKey key, Document document) {
+        int documentId = documents.size();
+        documentIds.put(key, documentId);
+        documents.add(document);
+        for (String term : TitleTokenizer.tokenize(document.item().title())) {
+            postings.computeIfAbsent(term, ignored -> new Postings()).add(documentId);
+        }
+    }
+
+    private static long toCents(BigDecimal bound, RoundingMode roundingMode, long unbounded) {
+        if (bound == null) {
+            return unbounded;
+        }
+        return bound.setScale(2, roundingMode).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Keeps the ids of {@code candidates} that also occur in {@code list}, returns their count.
+     */
+    private static int intersect(int[] candidates, int candidateCount, Postings list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int position = Arrays.binarySearch(list.ids, from, list.size, candidates[i]);
+            if (position >= 0) {
+                candidates[kept++] = candidates[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    private record DocumentKey(Long profileId, String marketplaceId, String itemId) {
+    }
+
+    private record Document(Long profileId, SearchResultItem item, long priceCents, Instant firstSeen,
+            Instant lastSeen) {
+
+        boolean matches(ResultSearchQuery query, long minCents, long maxCents) {
+            if (query.profileId() != null && !query.profileId().equals(profileId)) {
+                return false;
+            }
+            if (priceCents != ResultBatch.NO_VALUE && (priceCents < minCents || priceCents > maxCents)) {
+                return false;
+            }
+            Instant publishedAt = item.publishedAt();
+            if (publishedAt != null) {
+                if (query.publishedAfter() != null && publishedAt.isBefore(query.publishedAfter())) {
+                    return false;
+                }
+                if (query.publishedBefore() != null && publishedAt.isAfter(query.publishedBefore())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ResultSearchHit toHit() {
+            return new ResultSearchHit(profileId, new StoredSearchResultItem(item, firstSeen, lastSeen));
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void addSorted(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.kleinanzeigen.app.searchresult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Full-text query over the stored results. {@code profileId} and the ranges are optional.
+ */
+public record ResultSearchQuery(
+        String text,
+        Long profileId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Instant publishedAfter,
+        Instant publishedBefore,
+        int limit
+) {
+
+    public ResultSearchQuery {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice must be less or equal to maxPrice");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package de.kleinanzeigen.app.searchresult;
+
+import de.kleinanzeigen.app.search.ResultFilterService;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfileNotFoundException;
+import de.kleinanzeigen.app.searchprofile.SearchProfileRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/results")
+public class SearchResultController {
+
+    private static final int MAX_SEARCH_LIMIT = 500;
+
+    private final SearchResultStore resultStore;
+    private final SearchProfileRepository profileRepository;
+    private final ResultFilterService resultFilterService;
+    private final ResultSearchIndex searchIndex;
+    private final ResultExporter exporter;
+    private final ResultPagingProperties pagingProperties;
+
+    public SearchResultController(SearchResultStore resultStore, SearchProfileRepository profileRepository,
+            ResultFilterService resultFilterService, ResultSearchIndex searchIndex, ResultExporter exporter,
+            ResultPagingProperties pagingProperties) {
+        this.resultStore = resultStore;
+        this.profileRepository = profileRepository;
+        this.resultFilterService = resultFilterService;
+        this.searchIndex = searchIndex;
+        this.exporter = exporter;
+        this.pagingProperties = pagingProperties;
+    }
+
+    @GetMapping("/search")
+    public List<ResultSearchHit> search(@RequestParam String q,
+            @RequestParam(required = false) Long profileId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant publishedAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant publishedBefore,
+            @RequestParam(defaultValue = "50") int limit) {
+        return searchIndex.search(new ResultSearchQuery(q, profileId, minPrice, maxPrice, publishedAfter,
+                publishedBefore, Math.min(limit, MAX_SEARCH_LIMIT)));
+    }
+
+    @GetMapping("/profiles/{profileId}")
+    public List<StoredSearchResultItem> list(@PathVariable Long profileId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String marketplace) {
+        StoredResultBatch batch = loadBatch(profileId);
+        return batch.toStoredItems(select(batch, minPrice, maxPrice, marketplace));
+    }
+
+    /**
+     * Stored results newest first seen first, one page at a time. Pass the {@code nextCursor} of a page as
+     * {@code cursor} to get the next one.
+     */
+    @GetMapping("/profiles/{profileId}/page")
+    public ResultPage page(@PathVariable Long profileId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String marketplace,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        requireProfile(profileId);
+        int pageSize = pagingProperties.pageSize(limit);
+        ResultCursor after = cursor != null ? ResultCursor.decode(cursor) : null;
+        // One row more than requested tells whether there is a next page
+        List<StoredSearchResultItem> items = resultStore.findPage(profileId, PriceRange.of(minPrice, maxPrice),
+                marketplace, after, pageSize + 1);
+        if (items.size() <= pageSize) {
+            return new ResultPage(items, null);
+        }
+        List<StoredSearchResultItem> page = items.subList(0, pageSize);
+        return new ResultPage(page, ResultCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    @GetMapping(value = "/profiles/{profileId}/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long profileId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String marketplace) {
+        requireProfile(profileId);
+        PriceRange priceRange = PriceRange.of(minPrice, maxPrice);
+        StreamingResponseBody body = out -> exporter.writeJson(profileId, priceRange, marketplace, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"results-" + profileId + ".json\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    @GetMapping("/profiles/{profileId}/summary")
+    public List<MarketplaceResultSummary> summary(@PathVariable Long profileId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String marketplace) {
+        StoredResultBatch batch = loadBatch(profileId);
+        return batch.summarizeByMarketplace(select(batch, minPrice, maxPrice, marketplace));
+    }
+
+    private StoredResultBatch loadBatch(Long profileId) {
+        requireProfile(profileId);
+        return resultStore.findBatchByProfile(profileId);
+    }
+
+    private void requireProfile(Long profileId) {
+        if (!profileRepository.existsById(profileId)) {
+            throw new SearchProfileNotFoundException(profileId);
+        }
+    }
+
+    private BitSet select(StoredResultBatch batch, BigDecimal minPrice, BigDecimal maxPrice, String marketplace) {
+        BitSet selection = batch.items().selectAll();
+        resultFilterService.retainPriceRange(PriceRange.of(minPrice, maxPrice), batch.items(), selection);
+        if (marketplace != null) {
+            batch.items().retainMarketplace(selection, marketplace);
+        }
+        return selection;
+    }
+}
@@ -0,0 +1,216 @@
+package de.kleinanzeigen.app.searchresult;
+
+import de.kleinanzeigen.app.search.ResultBatch;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class SearchResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchResultStore.class);
+    private static final int BATCH_SIZE = 200;
+
+    // Standard SQL MERGE is understood by both H2 (dev) and PostgreSQL 15+, the casts give PostgreSQL
+    // the parameter types it cannot infer from a VALUES list
+    private static final String UPSERT_SQL = """
+            MERGE INTO search_result_items t
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(64)), CAST(? AS VARCHAR(512)),
+                    CAST(? AS VARCHAR(1024)), CAST(? AS VARCHAR(2048)), CAST(? AS NUMERIC(12, 2)),
+                    CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP WITH TIME ZONE),
+                    CAST(? AS TIMESTAMP WITH TIME ZONE)))
+                AS s (profile_id, marketplace_id, item_id, title, url, price, location, published_at, seen_at)
+            ON t.profile_id = s.profile_id AND t.marketplace_id = s.marketplace_id AND t.item_id = s.item_id
+            WHEN MATCHED THEN UPDATE SET
+                title = s.title, url = s.url, price = s.price, location = s.location, last_seen = s.seen_at
+            WHEN NOT MATCHED THEN INSERT
+                (profile_id, marketplace_id, item_id, title, url, price, location, published_at, first_seen, last_seen)
+                VALUES (s.profile_id, s.marketplace_id, s.item_id, s.title, s.url, s.price, s.location,
+                    s.published_at, s.seen_at, s.seen_at)
+            """;
+
+    private static final String SELECT_COLUMNS = """
+            SELECT marketplace_id, item_id, title, url, price, location, published_at, first_seen, last_seen
+            FROM search_result_items
+            """;
+
+    private static final String SELECT_ALL_WITH_PROFILE_SQL = """
+            SELECT profile_id, marketplace_id, item_id, title, url, price, location, published_at, first_seen,
+                last_seen
+            FROM search_result_items
+            """;
+
+    // Prices are NUMERIC(12, 2), so the cents are exact
+    private static final String BATCH_SELECT_SQL = """
+            SELECT marketplace_id, item_id, title, url, CAST(price * 100 AS BIGINT) AS price_cents, location,
+                published_at, first_seen, last_seen
+            FROM search_result_items
+            WHERE profile_id = ?
+            ORDER BY last_seen DESC, first_seen DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchResultStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void upsert(Long profileId, List<SearchResultItem> items, Instant seenAt) {
+        if (items.isEmpty()) {
+            return;
+        }
+        OffsetDateTime seenAtUtc = toOffsetDateTime(seenAt);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, items, BATCH_SIZE, (ps, item) -> {
+            ps.setLong(1, profileId);
+            ps.setString(2, item.marketplaceId());
+            ps.setString(3, item.id());
+            ps.setString(4, item.title());
+            ps.setString(5, item.url());
+            ps.setBigDecimal(6, item.price());
+            ps.setString(7, item.location());
+            if (item.publishedAt() != null) {
+                ps.setObject(8, toOffsetDateTime(item.publishedAt()));
+            } else {
+                ps.setNull(8, Types.TIMESTAMP_WITH_TIMEZONE);
+            }
+            ps.setObject(9, seenAtUtc);
+        });
+        log.debug("Stored {} result items for profile {}", items.size(), profileId);
+    }
+
+    public List<StoredSearchResultItem> findByProfile(Long profileId) {
+        return jdbcTemplate.query(SELECT_COLUMNS + " WHERE profile_id = ? ORDER BY last_seen DESC, first_seen DESC",
+                (rs, rowNum) -> mapRow(rs), profileId);
+    }
+
+    /**
+     * Up to {@code limit} results of the profile after {@code after}, or from the start for {@code null}, newest
+     * first seen first. The sort key (first_seen, marketplace_id, item_id) is unique per profile and first_seen
+     * never changes, so paging neither skips nor repeats rows while runs keep upserting; rows first seen after
+     * the first page was read are not included. Results without price pass the price range.
+     */
+    public List<StoredSearchResultItem> findPage(Long profileId, PriceRange priceRange, String marketplaceId,
+            ResultCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(" WHERE profile_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(profileId);
+        if (priceRange.getMin() != null) {
+            sql.append(" AND (price IS NULL OR price >= ?)");
+            args.add(priceRange.getMin());
+        }
+        if (priceRange.getMax() != null) {
+            sql.append(" AND (price IS NULL OR price <= ?)");
+            args.add(priceRange.getMax());
+        }
+        if (marketplaceId != null) {
+            sql.append(" AND marketplace_id = ?");
+            args.add(marketplaceId);
+        }
+        if (after != null) {
+            sql.append(" AND (first_seen, marketplace_id, item_id) < (?, ?, ?)");
+            args.add(toOffsetDateTime(after.firstSeen()));
+            args.add(after.marketplaceId());
+            args.add(after.itemId());
+        }
+        sql.append(" ORDER BY first_seen DESC, marketplace_id DESC, item_id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs), args.toArray());
+    }
+
+    /**
+     * Same rows and order as {@link #findByProfile}, read straight into columns without a record per row.
+     */
+    public StoredResultBatch findBatchByProfile(Long profileId) {
+        BatchCollector collector = new BatchCollector();
+        jdbcTemplate.query(BATCH_SELECT_SQL, collector, profileId);
+        return collector.build();
+    }
+
+    /**
+     * Streams every stored result with its profile id, without holding all rows in memory.
+     */
+    public void forEachStored(BiConsumer<Long, StoredSearchResultItem> consumer) {
+        jdbcTemplate.query(SELECT_ALL_WITH_PROFILE_SQL,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong("profile_id"), mapRow(rs)));
+    }
+
+    public void deleteByProfile(Long profileId) {
+        jdbcTemplate.update("DELETE FROM search_result_items WHERE profile_id = ?", profileId);
+    }
+
+    private StoredSearchResultItem mapRow(ResultSet rs) throws SQLException {
+        SearchResultItem item = new SearchResultItem(
+                rs.getString("item_id"),
+                rs.getString("title"),
+                rs.getString("url"),
+                rs.getBigDecimal("price"),
+                rs.getString("location"),
+                toInstant(rs.getObject("published_at", OffsetDateTime.class)),
+                rs.getString("marketplace_id"));
+        return new StoredSearchResultItem(
+                item,
+                toInstant(rs.getObject("first_seen", OffsetDateTime.class)),
+                toInstant(rs.getObject("last_seen", OffsetDateTime.class)));
+    }
+
+    private static long toEpochSeconds(OffsetDateTime value) {
+        return value != null ? value.toEpochSecond() : ResultBatch.NO_VALUE;
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value != null ? value.toInstant() : null;
+    }
+
+    private static final class BatchCollector implements RowCallbackHandler {
+
+        private final ResultBatch.Builder items = ResultBatch.builder(256);
+        private long[] firstSeen = new long[256];
+        private long[] lastSeen = new long[256];
+        private int size;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long priceCents = rs.getLong("price_cents");
+            if (rs.wasNull()) {
+                priceCents = ResultBatch.NO_VALUE;
+            }
+            items.add(
+                    rs.getString("item_id"),
+                    rs.getString("title"),
+                    rs.getString("url"),
+                    priceCents,
+                    rs.getString("location"),
+                    toEpochSeconds(rs.getObject("published_at", OffsetDateTime.class)),
+                    rs.getString("marketplace_id"));
+            if (size == firstSeen.length) {
+                firstSeen = Arrays.copyOf(firstSeen, size * 2);
+                lastSeen = Arrays.copyOf(lastSeen, size * 2);
+            }
+            firstSeen[size] = toEpochSeconds(rs.getObject("first_seen", OffsetDateTime.class));
+            lastSeen[size] = toEpochSeconds(rs.getObject("last_seen", OffsetDateTime.class));
+            size++;
+        }
+
+        StoredResultBatch build() {
+            return new StoredResultBatch(items.build(), Arrays.copyOf(firstSeen, size), Arrays.copyOf(lastSeen, size));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.kleinanzeigen.app.searchresult;
+
+import de.kleinanzeigen.app.search.ResultBatch;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Stored results of a profile in columnar form, the item columns plus first and last seen as epoch seconds.
+ */
+public final class StoredResultBatch {
+
+    private final ResultBatch items;
+    private final long[] firstSeenSeconds;
+    private final long[] lastSeenSeconds;
+
+    StoredResultBatch(ResultBatch items, long[] firstSeenSeconds, long[] lastSeenSeconds) {
+        this.items = items;
+        this.firstSeenSeconds = firstSeenSeconds;
+        this.lastSeenSeconds = lastSeenSeconds;
+    }
+
+    public ResultBatch items() {
+        return items;
+    }
+
+    public long firstSeenSeconds(int row) {
+        return firstSeenSeconds[row];
+    }
+
+    public long lastSeenSeconds(int row) {
+        return lastSeenSeconds[row];
+    }
+
+    public List<StoredSearchResultItem> toStoredItems(BitSet selection) {
+        List<StoredSearchResultItem> stored = new ArrayList<>(selection.cardinality());
+        for (int row = selection.nextSetBit(0); row >= 0 && row < items.size(); row = selection.nextSetBit(row + 1)) {
+            stored.add(new StoredSearchResultItem(
+                    items.toItem(row),
+                    Instant.ofEpochSecond(firstSeenSeconds[row]),
+                    Instant.ofEpochSecond(lastSeenSeconds[row])));
+        }
+        return stored;
+    }
+
+    /**
+     * Item count and price statistics of the selected rows per marketplace, in order of first occurrence.
+     */
+    public List<MarketplaceResultSummary> summarizeByMarketplace(BitSet selection) {
+        int marketplaceCount = items.marketplaceIds().size();
+        int[] itemCounts = new int[marketplaceCount];
+        int[] pricedCounts = new int[marketplaceCount];
+        long[] minCents = new long[marketplaceCount];
+        long[] maxCents = new long[marketplaceCount];
+        long[] sumCents = new long[marketplaceCount];
+        Arrays.fill(minCents, Long.MAX_VALUE);
+        Arrays.fill(maxCents, Long.MIN_VALUE);
+        for (int row = selection.nextSetBit(0); row >= 0 && row < items.size(); row = selection.nextSetBit(row + 1)) {
+            int code = items.marketplaceCode(row);
+            itemCounts[code]++;
+            long cents = items.priceCents(row);
+            if (cents != ResultBatch.NO_VALUE) {
+                pricedCounts[code]++;
+                minCents[code] = Math.min(minCents[code], cents);
+                maxCents[code] = Math.max(maxCents[code], cents);
+                sumCents[code] += cents;
+            }
+        }
+
+        List<MarketplaceResultSummary> summaries = new ArrayList<>(marketplaceCount);
+        for (int code = 0; code < marketplaceCount; code++) {
+            if (itemCounts[code] == 0) {
+                continue;
+            }
+            boolean priced = pricedCounts[code] > 0;
+            summaries.add(new MarketplaceResultSummary(
+                    items.marketplaceIds().get(code),
+                    itemCounts[code],
+                    pricedCounts[code],
+                    priced ? ResultBatch.toPrice(minCents[code]) : null,
+                    priced ? ResultBatch.toPrice(maxCents[code]) : null,
+                    priced ? BigDecimal.valueOf(sumCents[code], 2)
+                            .divide(BigDecimal.valueOf(pricedCounts[code]), 2, RoundingMode.HALF_UP) : null));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,12 @@
+package de.kleinanzeigen.app.searchresult;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.time.Instant;
+
+public record StoredSearchResultItem(
+        @JsonUnwrapped SearchResultItem item,
+        Instant firstSeen,
+        Instant lastSeen
+) {
+}
@@ -0,0 +1,48 @@
+package de.kleinanzeigen.app.searchresult;
+
+import de.kleinanzeigen.app.shared.TextNormalizer;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits titles and queries into comparable terms. German spellings are folded so that "Größe", "Groesse" and
+ * "Grosse" all become {@code grosse}; numbers lose leading zeros, so "Band 05" finds "Band 5".
+ */
+final class TitleTokenizer {
+
+    private TitleTokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = TextNormalizer.foldDiacritics(text).replace("ß", "ss");
+        Set<String> terms = new LinkedHashSet<>();
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                term.append(c);
+            } else if (!term.isEmpty()) {
+                terms.add(normalizeTerm(term));
+                term.setLength(0);
+            }
+        }
+        return List.copyOf(terms);
+    }
+
+    private static String normalizeTerm(StringBuilder term) {
+        if (Character.isDigit(term.charAt(0))) {
+            int start = 0;
+            while (start < term.length() - 1 && term.charAt(start) == '0') {
+                start++;
+            }
+            return term.substring(start);
+        }
+        // Umlauts written as ae/oe/ue; folded on both sides, so words that merely contain the pair still match
+        String value = term.toString();
+        return value.replace("ae", "a").replace("oe", "o").replace("ue", "u");
+    }
+}
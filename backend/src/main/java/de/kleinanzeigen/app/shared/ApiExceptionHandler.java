@@ -1,10 +1,14 @@
 package de.kleinanzeigen.app.shared;
 
+import de.kleinanzeigen.app.search.SearchJobNotFoundException;
+import de.kleinanzeigen.app.search.SearchJobQueueFullException;
 import de.kleinanzeigen.app.searchprofile.DuplicateSearchProfileException;
 import de.kleinanzeigen.app.searchprofile.SearchProfileNotFoundException;
 import java.time.Instant;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,10 +19,26 @@ public class ApiExceptionHandler {
 
     @ExceptionHandler(SearchProfileNotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNotFound(SearchProfileNotFoundException ex) {
+        // Preset, so the event stream endpoint answers with the JSON error instead of a 406
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(problem("not-found", ex.getMessage(), HttpStatus.NOT_FOUND));
     }
 
+    @ExceptionHandler(SearchJobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleJobNotFound(SearchJobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(problem("not-found", ex.getMessage(), HttpStatus.NOT_FOUND));
+    }
+
+    @ExceptionHandler(SearchJobQueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleQueueFull(SearchJobQueueFullException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(problem("too-many-jobs", ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS));
+    }
+
     @ExceptionHandler(DuplicateSearchProfileException.class)
     public ResponseEntity<Map<String, Object>> handleDuplicate(DuplicateSearchProfileException ex) {
         return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -0,0 +1,115 @@
+package de.kleinanzeigen.app.shared;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs. Uses 8 bytes per slot instead of a boxed entry per element;
+ * {@code 0} is reserved as the empty marker and cannot be stored.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] slots;
+    private int size;
+    private int resizeThreshold;
+
+    public LongHashSet() {
+        this(8);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("0 cannot be stored in a LongHashSet");
+        }
+        if (size >= resizeThreshold) {
+            grow();
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (true) {
+            long slot = slots[index];
+            if (slot == value) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                slots[index] = value;
+                size++;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (true) {
+            long slot = slots[index];
+            if (slot == value) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    private void grow() {
+        long[] oldSlots = slots;
+        allocate(oldSlots.length << 1);
+        for (long value : oldSlots) {
+            if (value != EMPTY) {
+                reinsert(value);
+            }
+        }
+    }
+
+    private void reinsert(long value) {
+        int mask = slots.length - 1;
+        int index = mix(value) & mask;
+        while (slots[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        size++;
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        size = 0;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int required = (int) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR);
+        return Integer.highestOneBit(required - 1) << 1;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
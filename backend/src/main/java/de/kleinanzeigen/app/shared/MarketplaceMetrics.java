@@ -0,0 +1,87 @@
+package de.kleinanzeigen.app.shared;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the marketplace connectors, all tagged with the marketplace id so the stages can be compared
+ * per connector under {@code /actuator/metrics} and {@code /actuator/prometheus}.
+ */
+@Component
+public class MarketplaceMetrics {
+
+    private static final String MARKETPLACE = "marketplace";
+
+    private final MeterRegistry registry;
+
+    public MarketplaceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Time from sending the request until the body is read, {@code outcome} is {@code success} or {@code error}.
+     */
+    public void recordFetch(String marketplaceId, long nanos, boolean success) {
+        Timer.builder("marketplace.fetch")
+                .description("Request until the response body is read")
+                .tags(MARKETPLACE, marketplaceId, "outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordResponse(String marketplaceId, int statusCode) {
+        Counter.builder("marketplace.http.responses")
+                .tags(MARKETPLACE, marketplaceId, "status", Integer.toString(statusCode))
+                .register(registry)
+                .increment();
+    }
+
+    public void recordResponseBytes(String marketplaceId, long bytes) {
+        DistributionSummary.builder("marketplace.response.size")
+                .description("Decoded response body size")
+                .baseUnit("bytes")
+                .tag(MARKETPLACE, marketplaceId)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordThrottleWait(String marketplaceId, long nanos) {
+        Timer.builder("marketplace.throttle.wait")
+                .description("Wait for the host's rate limiter")
+                .tag(MARKETPLACE, marketplaceId)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordParse(String marketplaceId, long nanos, int items) {
+        Timer.builder("marketplace.parse")
+                .tag(MARKETPLACE, marketplaceId)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("marketplace.parse.items")
+                .description("Items parsed per page")
+                .tag(MARKETPLACE, marketplaceId)
+                .register(registry)
+                .record(items);
+    }
+
+    public void recordFilteredItems(String marketplaceId, int items) {
+        DistributionSummary.builder("search.items.filtered")
+                .description("Items per run left after the profile's filters")
+                .tag(MARKETPLACE, marketplaceId)
+                .register(registry)
+                .record(items);
+    }
+
+    public void recordFailure(String marketplaceId, Throwable failure) {
+        Counter.builder("marketplace.errors")
+                .tags(MARKETPLACE, marketplaceId, "exception", failure.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,26 @@
+package de.kleinanzeigen.app.shared;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class TaskExecutors {
+
+    /**
+     * The property Spring Boot switches virtual threads with, read by every executor of the application.
+     */
+    public static final String VIRTUAL_THREADS = "${spring.threads.virtual.enabled:false}";
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * A thread per task, virtual with {@code spring.threads.virtual.enabled}, otherwise from a cached pool of
+     * platform threads. Neither bounds the tasks, callers limit them where needed.
+     */
+    public static ExecutorService newPerTaskExecutor(String namePrefix, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 1).factory());
+        }
+        return Executors.newCachedThreadPool(Thread.ofPlatform().name(namePrefix, 1).factory());
+    }
+}
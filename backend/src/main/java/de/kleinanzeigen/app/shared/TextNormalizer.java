@@ -0,0 +1,21 @@
+package de.kleinanzeigen.app.shared;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Lower case without diacritics, "Über Größe" becomes "uber große". The text is not trimmed.
+     */
+    public static String foldDiacritics(String value) {
+        String decomposed = Normalizer.normalize(value.toLowerCase(Locale.GERMAN), Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+}
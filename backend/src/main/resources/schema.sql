@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS search_result_items (
+    profile_id BIGINT NOT NULL,
+    marketplace_id VARCHAR(64) NOT NULL,
+    item_id VARCHAR(512) NOT NULL,
+    title VARCHAR(1024) NOT NULL,
+    url VARCHAR(2048) NOT NULL,
+    price NUMERIC(12, 2),
+    location VARCHAR(255),
+    published_at TIMESTAMP WITH TIME ZONE,
+    first_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    last_seen TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (profile_id, marketplace_id, item_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_result_items_last_seen ON search_result_items (profile_id, last_seen);
+CREATE INDEX IF NOT EXISTS idx_search_result_items_first_seen
+    ON search_result_items (profile_id, first_seen, marketplace_id, item_id);
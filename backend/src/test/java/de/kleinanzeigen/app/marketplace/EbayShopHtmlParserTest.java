@@ -0,0 +1,105 @@
+package de.kleinanzeigen.app.marketplace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import de.kleinanzeigen.app.marketplace.http.FetchedPage;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+class EbayShopHtmlParserTest {
+
+    private static final String SHOP_URL = "https://www.ebay.de/str/rebuy";
+
+    private final EbayShopHtmlParser parser = new EbayShopHtmlParser();
+
+    @Test
+    void streamsStandardLayoutUntilResultListEnds() throws IOException {
+        FetchedPage page = loadFixture("/fixtures/ebay-shop-results.html");
+
+        List<SearchResultItem> items = parser.parse(page, "ebay_rebuy", "eBay Rebuy");
+
+        assertThat(items)
+                .extracting(SearchResultItem::id, SearchResultItem::title, SearchResultItem::location)
+                .containsExactly(
+                        tuple("256789012345", "Dragon Ball 01 Manga", "eBay Rebuy"),
+                        tuple("256789012346", "Dragon Ball Sammelband 1-3", "eBay Rebuy"));
+        assertThat(items.get(0).price()).isEqualByComparingTo("4.99");
+        assertThat(items.get(1).price()).isEqualByComparingTo("1234.50");
+        assertThat(items.get(0).marketplaceId()).isEqualTo("ebay_rebuy");
+    }
+
+    @Test
+    void streamingMatchesDocumentParsing() throws IOException {
+        FetchedPage page = loadFixture("/fixtures/ebay-shop-results.html");
+
+        List<SearchResultItem> streamed = parser.parse(page, "ebay_rebuy", "eBay Rebuy");
+        List<SearchResultItem> fromDocument = parser.parse(page.toDocument(), "ebay_rebuy", "eBay Rebuy");
+
+        assertThat(fromDocument).extracting(SearchResultItem::id)
+                .containsExactlyElementsOf(streamed.stream().map(SearchResultItem::id).toList())
+                .doesNotContain("256789019999");
+    }
+
+    @Test
+    void decodesWithMetaCharsetWhenServerSendsNone() throws IOException {
+        String html = """
+                <html><head><meta http-equiv="Content-Type" content="text/html; charset=windows-1252"></head>
+                <body><ul><li><div class="su-card-container">
+                    <a class="s-card__link" href="https://www.ebay.de/itm/333">
+                        <span class="s-card__title">Kochbuch für Anfänger</span></a>
+                    <span class="s-card__price">9,99 €</span>
+                </div></li></ul></body></html>
+                """;
+        FetchedPage page = new FetchedPage(SHOP_URL, 200, html.getBytes(Charset.forName("windows-1252")), null);
+
+        List<SearchResultItem> streamed = parser.parse(page, "ebay_buchpark", "Buchpark");
+
+        assertThat(streamed).extracting(SearchResultItem::title).containsExactly("Kochbuch für Anfänger");
+        assertThat(streamed.get(0).price()).isEqualByComparingTo("9.99");
+        assertThat(parser.parse(page.toDocument(), "ebay_buchpark", "Buchpark"))
+                .extracting(SearchResultItem::title).containsExactly("Kochbuch für Anfänger");
+    }
+
+    @Test
+    void detectsShopCardLayout() throws IOException {
+        String html = """
+                <html><body><ul class="srp-results">
+                <li><div class="su-card-container">
+                    <a class="s-card__link" href="https://www.ebay.de/itm/111?_skw=manga">
+                        <span class="s-card__title">One Piece 100</span></a>
+                    <span class="s-card__price">7,50 €</span>
+                </div></li>
+                <li><div class="su-card-container">
+                    <a class="s-card__link" href="https://www.ebay.de/itm/222">
+                        <span class="s-card__title">One Piece 101</span></a>
+                    <span class="s-card__price">8,00 €</span>
+                </div></li>
+                </ul></body></html>
+                """;
+        FetchedPage page = new FetchedPage(SHOP_URL, 200, html.getBytes(StandardCharsets.UTF_8), null);
+
+        List<SearchResultItem> items = parser.parse(page, "ebay_buchpark", "Buchpark");
+
+        assertThat(items).extracting(SearchResultItem::id, SearchResultItem::title)
+                .containsExactly(tuple("111", "One Piece 100"), tuple("222", "One Piece 101"));
+        assertThat(items).extracting(SearchResultItem::id)
+                .containsExactlyElementsOf(parser.parse(Jsoup.parse(html, SHOP_URL), "ebay_buchpark", "Buchpark")
+                        .stream().map(SearchResultItem::id).toList());
+    }
+
+    private FetchedPage loadFixture(String path) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(path)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found: " + path);
+            }
+            return new FetchedPage(SHOP_URL, 200, inputStream.readAllBytes(), "UTF-8");
+        }
+    }
+}
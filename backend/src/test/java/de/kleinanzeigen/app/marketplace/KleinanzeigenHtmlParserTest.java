@@ -45,6 +45,20 @@ class KleinanzeigenHtmlParserTest {
         assertThat(giveaway.price()).isNull();
     }
 
+    @Test
+    void singlePassExtractionMatchesSelectorExtraction() throws IOException {
+        Clock clock = Clock.fixed(Instant.parse("2025-09-27T10:00:00Z"), ZONE_ID);
+        KleinanzeigenHtmlParser parser = new KleinanzeigenHtmlParser(clock);
+        SelectorKleinanzeigenHtmlParser reference = new SelectorKleinanzeigenHtmlParser(clock);
+
+        for (String fixture : List.of("/fixtures/kleinanzeigen-search-results.html",
+                "/fixtures/kleinanzeigen-search-page.html")) {
+            Document document = loadFixture(fixture);
+            assertThat(parser.parse(document)).isEqualTo(reference.parse(document));
+        }
+        assertThat(parser.parse(loadFixture("/fixtures/kleinanzeigen-search-page.html"))).hasSize(25);
+    }
+
     private Document loadFixture(String path) throws IOException {
         try (InputStream inputStream = getClass().getResourceAsStream(path)) {
             if (inputStream == null) {
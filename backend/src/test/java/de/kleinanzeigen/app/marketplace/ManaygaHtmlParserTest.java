@@ -4,6 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.kleinanzeigen.app.search.SearchResultItem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -60,4 +63,91 @@ class ManaygaHtmlParserTest {
         assertThat(item.price()).isNotNull();
         assertThat(item.price().doubleValue()).isEqualTo(4.0);
     }
+
+    @Test
+    void shouldKeepTryingJsonAfterHtmlFallback() {
+        Document htmlOnly = Jsoup.parse("""
+                <html><body>
+                <div class="product-card">
+                    <h3><a href="/products/test-product">Test Product</a></h3>
+                    <span class="money">3,00 €</span>
+                </div>
+                </body></html>
+                """);
+        Document withEvents = Jsoup.parse("""
+                <html><body>
+                <script data-events="[[&quot;search_submitted&quot;,{&quot;searchResult&quot;:{&quot;productVariants&quot;:[{&quot;price&quot;:{&quot;amount&quot;:4.0},&quot;product&quot;:{&quot;id&quot;:&quot;123&quot;,&quot;title&quot;:&quot;Test Product&quot;,&quot;url&quot;:&quot;/products/test-product&quot;}}]}}]]"></script>
+                </body></html>
+                """);
+        assertThat(parser.parse(htmlOnly)).extracting(SearchResultItem::id)
+                .containsExactly("https://manayga.de/products/test-product");
+
+        List<SearchResultItem> items = parser.parse(withEvents);
+        assertThat(items).extracting(SearchResultItem::id).containsExactly("123");
+        assertThat(items.get(0).price().doubleValue()).isEqualTo(4.0);
+    }
+
+    @Test
+    void shouldReadTotalCountFromProductCounter() {
+        Document document = Jsoup.parse("""
+                <html><head><title>Suche: 279 Ergebnisse gefunden</title></head>
+                <body><p id="ProductCount" role="status">279 Ergebnisse</p></body></html>
+                """);
+
+        assertThat(parser.parseTotalCount(document)).hasValue(279);
+    }
+
+    @Test
+    void shouldFallBackToTitleForTotalCount() {
+        Document document = Jsoup.parse("<html><head><title>Suche: 1.024 Ergebnisse gefunden für &quot;dragon&quot;"
+                + "</title></head><body></body></html>");
+
+        assertThat(parser.parseTotalCount(document)).hasValue(1024);
+        assertThat(parser.parseTotalCount(Jsoup.parse("<html><body></body></html>"))).isEmpty();
+    }
+
+    @Test
+    void shouldParseRecordedSearchPage() throws IOException {
+        Document document = loadFixture("/fixtures/manayga-search-results.html");
+
+        List<SearchResultItem> items = parser.parse(document);
+
+        assertThat(items).hasSize(12);
+        SearchResultItem first = items.get(0);
+        assertThat(first.id()).isEqualTo("9433955991875");
+        assertThat(first.title()).isEqualTo("Dragon Ball Massiv 01");
+        assertThat(first.url()).isEqualTo(
+                "https://manayga.de/products/dragon-ball-massiv-1-manayga?_pos=1&_sid=5225d4dc5&_ss=r");
+        assertThat(first.price()).isEqualByComparingTo("4.0");
+        assertThat(parser.parseTotalCount(document)).hasValue(279);
+    }
+
+    @Test
+    void shouldSkipEventsBeforeSearchSubmitted() {
+        String html = """
+                <html>
+                <body>
+                <script id="web-pixels-manager-setup">
+                    var initData = {"events":"[[],[\\"page_viewed\\",{\\"nested\\":[[\\"search_submitted\\"]]}],[\\"search_submitted\\",{\\"searchResult\\":{\\"productVariants\\":[{\\"product\\":{\\"id\\":\\"7\\",\\"title\\":\\"Caf\\\\u00e9 \\\\\\"Manga\\\\\\"\\",\\"url\\":\\"\\\\/p\\\\/7\\"},\\"price\\":{\\"amount\\":2.5}}]}}]]"};
+                </script>
+                </body>
+                </html>
+                """;
+
+        List<SearchResultItem> items = parser.parse(Jsoup.parse(html));
+
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).title()).isEqualTo("Café \"Manga\"");
+        assertThat(items.get(0).url()).isEqualTo("https://manayga.de/p/7");
+        assertThat(items.get(0).price()).isEqualByComparingTo("2.5");
+    }
+
+    private Document loadFixture(String path) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(path)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Fixture not found: " + path);
+            }
+            return Jsoup.parse(inputStream, StandardCharsets.UTF_8.name(), "https://manayga.de");
+        }
+    }
 }
@@ -1,7 +1,14 @@
 package de.kleinanzeigen.app.marketplace;
 
+import de.kleinanzeigen.app.marketplace.http.HostRateLimiter;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpClient;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpProperties;
+import de.kleinanzeigen.app.marketplace.http.ResponseCache;
+import de.kleinanzeigen.app.marketplace.http.ResponseCacheProperties;
 import de.kleinanzeigen.app.search.SearchResultItem;
 import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -11,10 +18,14 @@ public class ManualEbayShopsTest {
     @Test
     public void runManualTest() {
         EbayShopHtmlParser parser = new EbayShopHtmlParser();
-
-        testClient(new EbayRebuyClient(parser), "ebay_rebuy");
-        testClient(new EbayBuchparkClient(parser), "ebay_buchpark");
-        testClient(new EbayWorldOfBooksClient(parser), "ebay_worldofbooks");
+        MarketplaceHttpProperties httpProperties = MarketplaceHttpProperties.defaults();
+        MarketplaceMetrics metrics = new MarketplaceMetrics(new SimpleMeterRegistry());
+        MarketplaceHttpClient httpClient = new MarketplaceHttpClient(httpProperties,
+                new ResponseCache(ResponseCacheProperties.disabled()), new HostRateLimiter(httpProperties), metrics, true);
+
+        testClient(new EbayRebuyClient(parser, httpClient, metrics), "ebay_rebuy");
+        testClient(new EbayBuchparkClient(parser, httpClient, metrics), "ebay_buchpark");
+        testClient(new EbayWorldOfBooksClient(parser, httpClient, metrics), "ebay_worldofbooks");
     }
 
     private void testClient(MarketplaceClient client, String marketplaceId) {
@@ -0,0 +1,66 @@
+package de.kleinanzeigen.app.marketplace;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class PriceParserTest {
+
+    @ParameterizedTest(name = "\"{0}\" -> {1}")
+    @CsvSource(delimiter = '|', value = {
+            // Kleinanzeigen
+            "1.200 € VB                 | 120000",
+            "250,00 €                   | 25000",
+            "35 € VB                    | 3500",
+            "VB 80 €                    | 8000",
+            "1.234.567 €                | 123456700",
+            "12.345,67 €                | 1234567",
+            "20,- €                     | 2000",
+            "1 200 €                    | 120000",
+            // eBay
+            "EUR 4,99                   | 499",
+            "EUR 1.234,50               | 123450",
+            "20,00 EUR                  | 2000",
+            "EUR 3,99 bis EUR 7,99      | 399",
+            "$1,234.56                  | 123456",
+            "$20.00                     | 2000",
+            "US $1,234                  | 123400",
+            // Manayga
+            "€4,50 EUR                  | 450",
+            "4.5                        | 450",
+            "€1.234,56                  | 123456",
+            "0,999                      | 100",
+            "1.234,567                  | 123457"
+    })
+    void parsesAmountsIntoCents(String label, long expectedCents) {
+        assertThat(PriceParser.parseCents(label)).isEqualTo(expectedCents);
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Zu verschenken",
+            "ZU VERSCHENKEN",
+            "VB",
+            "Preis auf Anfrage",
+            "''"
+    })
+    void returnsNoPriceWithoutAmount(String label) {
+        assertThat(PriceParser.parseCents(label)).isEqualTo(PriceParser.NO_PRICE);
+    }
+
+    @Test
+    void handlesNoBreakSpacesAndOverflow() {
+        assertThat(PriceParser.parseCents("1 200,50 €")).isEqualTo(120050);
+        assertThat(PriceParser.parseCents("1 200 €")).isEqualTo(120000);
+        assertThat(PriceParser.parseCents("99999999999999999999999 €")).isEqualTo(PriceParser.NO_PRICE);
+        assertThat(PriceParser.parseCents(null)).isEqualTo(PriceParser.NO_PRICE);
+    }
+
+    @Test
+    void convertsCentsAtApiEdge() {
+        assertThat(PriceParser.toBigDecimal(123450)).isEqualByComparingTo("1234.50");
+        assertThat(PriceParser.toBigDecimal(PriceParser.NO_PRICE)).isNull();
+    }
+}
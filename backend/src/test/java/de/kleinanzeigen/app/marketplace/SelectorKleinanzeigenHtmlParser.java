@@ -0,0 +1,107 @@
+package de.kleinanzeigen.app.marketplace;
+
+import static de.kleinanzeigen.app.marketplace.KleinanzeigenHtmlParser.firstNonNull;
+
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+/**
+ * Selector based extraction that runs a query per field, the way {@link KleinanzeigenHtmlParser} worked before
+ * its single-pass walk. Reference for the equivalence test and the benchmark.
+ */
+public class SelectorKleinanzeigenHtmlParser {
+
+    private final KleinanzeigenHtmlParser parser;
+    private final Clock clock;
+
+    public SelectorKleinanzeigenHtmlParser(Clock clock) {
+        this.parser = new KleinanzeigenHtmlParser(clock);
+        this.clock = clock;
+    }
+
+    public List<SearchResultItem> parse(Document document) {
+        List<SearchResultItem> items = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        for (Element container : document.select("li.aditem, article[data-adid]")) {
+            extractItem(container).ifPresent(item -> {
+                if (seenIds.add(item.id())) {
+                    items.add(item);
+                }
+            });
+        }
+        return items;
+    }
+
+    private Optional<SearchResultItem> extractItem(Element container) {
+        String id = extractId(container);
+        if (id == null || id.isBlank()) {
+            return Optional.empty();
+        }
+
+        Element titleElement = firstNonNull(
+                container.selectFirst("h2"),
+                container.selectFirst("h3"),
+                container.selectFirst("a.ellipsis"));
+        if (titleElement == null) {
+            return Optional.empty();
+        }
+        String title = titleElement.text().trim();
+        if (title.isBlank()) {
+            return Optional.empty();
+        }
+
+        Element linkElement = container.selectFirst("a[href]");
+        String href = linkElement != null ? linkElement.attr("href") : null;
+        if (href == null || href.isBlank()) {
+            return Optional.empty();
+        }
+
+        Element priceElement = firstNonNull(
+                container.selectFirst(".aditem-main--middle--price"),
+                container.selectFirst(".aditem-main--middle__price"),
+                container.selectFirst(".aditem-main--middle--price-shipping--price"),
+                container.selectFirst(".aditem-main--price"),
+                container.selectFirst(".price"));
+        String location = KleinanzeigenHtmlParser.locationOf(firstNonNull(
+                container.selectFirst(".aditem-main--bottom span"),
+                container.selectFirst(".aditem-main--bottom div"),
+                container.selectFirst(".aditem-main--top span")));
+
+        return Optional.of(new SearchResultItem(id, title, KleinanzeigenHtmlParser.normalizeUrl(href),
+                KleinanzeigenHtmlParser.priceOf(priceElement), location, extractPublishedAt(container),
+                KleinanzeigenClient.MARKETPLACE_ID));
+    }
+
+    private String extractId(Element container) {
+        if (container.hasAttr("data-adid")) {
+            return container.attr("data-adid");
+        }
+        if (container.hasAttr("data-item-id")) {
+            return container.attr("data-item-id");
+        }
+        Element idHolder = container.selectFirst("[name=adId]");
+        return idHolder != null ? idHolder.attr("value") : null;
+    }
+
+    private Instant extractPublishedAt(Element container) {
+        for (Element candidate : container.select(".aditem-main--bottom *")) {
+            String text = candidate.text();
+            if (text.isBlank()) {
+                continue;
+            }
+            Instant parsed = parser.parsePublishedAt(text);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return Instant.now(clock);
+    }
+}
@@ -0,0 +1,62 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class HostRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final HostRateLimiter limiter = new HostRateLimiter(new MarketplaceHttpProperties(null, null, null, null,
+            null, Map.of(
+                    "www.kleinanzeigen.de", host(Duration.ofSeconds(3), 1),
+                    "manayga.de", host(Duration.ofSeconds(1), 2))),
+            now::get);
+
+    @Test
+    void queuesReservationsBehindEachOther() {
+        assertThat(reserveMillis("www.kleinanzeigen.de")).isZero();
+        assertThat(reserveMillis("www.kleinanzeigen.de")).isEqualTo(3000);
+        assertThat(reserveMillis("www.kleinanzeigen.de")).isEqualTo(6000);
+    }
+
+    @Test
+    void refillsTokensOverTimeUpToBurst() {
+        assertThat(reserveMillis("manayga.de")).isZero();
+        assertThat(reserveMillis("manayga.de")).isZero();
+        assertThat(reserveMillis("manayga.de")).isEqualTo(1000);
+
+        advance(Duration.ofSeconds(10));
+        assertThat(reserveMillis("manayga.de")).isZero();
+        assertThat(reserveMillis("manayga.de")).isZero();
+        assertThat(reserveMillis("manayga.de")).isEqualTo(1000);
+
+        advance(Duration.ofMillis(1500));
+        assertThat(reserveMillis("manayga.de")).isEqualTo(500);
+    }
+
+    @Test
+    void hostsWithoutRateLimitAreNotDelayed() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(reserveMillis("www.ebay.de")).isZero();
+        }
+        assertThat(limiter.acquire("www.ebay.de")).isDone();
+    }
+
+    private long reserveMillis(String host) {
+        return TimeUnit.NANOSECONDS.toMillis(limiter.reserveNanos(host));
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static MarketplaceHttpProperties.Host host(Duration interval, int burst) {
+        return new MarketplaceHttpProperties.Host(null, null, null,
+                new MarketplaceHttpProperties.RateLimit(interval, burst));
+    }
+}
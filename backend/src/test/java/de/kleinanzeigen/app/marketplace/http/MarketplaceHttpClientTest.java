@@ -0,0 +1,215 @@
+package de.kleinanzeigen.app.marketplace.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class MarketplaceHttpClientTest {
+
+    private static final String PAGE = "<html><head><title>Treffer</title></head><body><ul>"
+            + "<li class=\"aditem\">Dragon Ball 01</li></ul></body></html>";
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private final List<String> referers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger originRequests = new AtomicInteger();
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private ResponseCacheProperties cacheProperties;
+    private MarketplaceHttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/gzip", exchange -> respond(exchange, 200, gzip(PAGE), "gzip"));
+        server.createContext("/plain", exchange -> respond(exchange, 200, PAGE.getBytes(StandardCharsets.UTF_8), null));
+        server.createContext("/large", exchange -> respond(exchange, 200, new byte[64 * 1024], null));
+        server.createContext("/missing", exchange -> respond(exchange, 404, new byte[0], null));
+        server.createContext("/etag", exchange -> {
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, new byte[0], null);
+            } else {
+                respond(exchange, 200, PAGE.getBytes(StandardCharsets.UTF_8), null);
+            }
+        });
+        server.start();
+
+        cacheProperties = new ResponseCacheProperties(true, DataSize.ofMegabytes(1), cacheDirectory,
+                DataSize.ofMegabytes(1), Duration.ofMinutes(1), Map.of("uncached", Duration.ZERO));
+        client = newClient(new ResponseCache(cacheProperties, clock));
+    }
+
+    @AfterEach
+    void stopServer() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void decodesGzipBodiesIntoDocument() throws IOException {
+        Document document = client.fetchDocument("test", url("/gzip"));
+
+        assertThat(document.title()).isEqualTo("Treffer");
+        assertThat(document.select("li.aditem").text()).isEqualTo("Dragon Ball 01");
+        assertThat(acceptEncodings).containsOnly("gzip, deflate");
+        assertThat(referers).containsOnly("https://www.google.com");
+    }
+
+    @Test
+    void reusesClientAcrossRequests() throws IOException {
+        FetchedPage first = client.fetch("uncached", url("/plain"));
+        FetchedPage second = client.fetch("uncached", url("/plain"));
+
+        assertThat(first.charset()).isEqualTo("UTF-8");
+        assertThat(new String(second.body(), StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(originRequests).hasValue(2);
+        assertThat(meterRegistry.get("marketplace.http.responses")
+                .tags("marketplace", "uncached", "status", "200").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("marketplace.response.size").tag("marketplace", "uncached").summary()
+                .totalAmount()).isEqualTo(2.0 * PAGE.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(meterRegistry.get("marketplace.fetch")
+                .tags("marketplace", "uncached", "outcome", "success").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsBodiesAboveMaximumSize() {
+        assertThatThrownBy(() -> client.fetch("test", url("/large")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("exceeds");
+    }
+
+    @Test
+    void reportsUnexpectedStatus() {
+        assertThatThrownBy(() -> client.fetch("test", url("/missing")))
+                .isInstanceOf(HttpFetchException.class)
+                .extracting(e -> ((HttpFetchException) e).getStatusCode())
+                .isEqualTo(404);
+    }
+
+    @Test
+    void servesFreshResponsesFromCache() throws IOException {
+        client.fetch("test", url("/plain?b=2&a=1"));
+        FetchedPage cached = client.fetch("test", url("/plain?a=1&b=2"));
+
+        assertThat(new String(cached.body(), StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(originRequests).hasValue(1);
+        assertThat(client.responseCacheStats().misses()).isEqualTo(1);
+        assertThat(client.responseCacheStats().memoryHits()).isEqualTo(1);
+    }
+
+    @Test
+    void servesResponsesFromDiskAfterRestart() throws IOException {
+        client.fetch("test", url("/plain"));
+
+        MarketplaceHttpClient restarted = newClient(new ResponseCache(cacheProperties, clock));
+        try {
+            restarted.fetch("test", url("/plain"));
+            assertThat(originRequests).hasValue(1);
+            assertThat(restarted.responseCacheStats().diskHits()).isEqualTo(1);
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    void revalidatesStaleResponsesWithEtag() throws IOException {
+        client.fetch("test", url("/etag"));
+        clock.advance(Duration.ofMinutes(2));
+
+        FetchedPage revalidated = client.fetch("test", url("/etag"));
+
+        assertThat(new String(revalidated.body(), StandardCharsets.UTF_8)).isEqualTo(PAGE);
+        assertThat(originRequests).hasValue(2);
+        assertThat(client.responseCacheStats().revalidations()).isEqualTo(1);
+    }
+
+    private MarketplaceHttpClient newClient(ResponseCache responseCache) {
+        MarketplaceHttpProperties properties = new MarketplaceHttpProperties(null, null, null, null,
+                DataSize.ofKilobytes(16),
+                Map.of("localhost", new MarketplaceHttpProperties.Host(null, null,
+                        Map.of("Referer", "https://www.google.com"), null)));
+        return new MarketplaceHttpClient(properties, responseCache, new HostRateLimiter(properties),
+                new MarketplaceMetrics(meterRegistry), true);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body, String encoding) throws IOException {
+        originRequests.incrementAndGet();
+        acceptEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        referers.add(String.valueOf(exchange.getRequestHeaders().getFirst("Referer")));
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        if (encoding != null) {
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return buffer.toByteArray();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-09-27T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
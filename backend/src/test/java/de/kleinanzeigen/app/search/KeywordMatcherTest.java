@@ -0,0 +1,39 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class KeywordMatcherTest {
+
+    @Test
+    void findsOverlappingKeywordsIgnoringCase() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("he", "she", "his", "hers", " "));
+
+        assertThat(matcher.keywordCount()).isEqualTo(4);
+        assertThat(matcher.containsAny("uSHErs")).isTrue();
+        assertThat(matcher.containsAll("uSHErs his")).isTrue();
+        assertThat(matcher.containsAll("ushers")).isFalse();
+        assertThat(matcher.containsAny("xyz")).isFalse();
+    }
+
+    @Test
+    void matchesKeywordsOutsideAscii() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("Größe", "ßt", "Über"));
+
+        assertThat(matcher.containsAny("Passt in GRÖßE M")).isTrue();
+        assertThat(matcher.containsAll("ÜBERgröße, passt")).isFalse();
+        assertThat(matcher.containsAll("ÜBERgröße, paßt")).isTrue();
+        assertThat(matcher.containsAny("Gross")).isFalse();
+    }
+
+    @Test
+    void emptyMatcherRequiresNothingAndExcludesNothing() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of());
+
+        assertThat(matcher.containsAny("anything")).isFalse();
+        assertThat(matcher.containsAll("anything")).isTrue();
+        assertThat(matcher.containsAll(null)).isTrue();
+    }
+}
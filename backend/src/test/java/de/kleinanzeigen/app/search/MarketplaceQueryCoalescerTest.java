@@ -0,0 +1,149 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MarketplaceQueryCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MarketplaceQueryCoalescer coalescer =
+            new MarketplaceQueryCoalescer(new MarketplaceMetrics(meterRegistry), true);
+    private final BlockingClient client = new BlockingClient();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentIdenticalQueriesShareOneFetch() throws Exception {
+        SearchProfile first = profile("Dragon Ball", "10");
+        SearchProfile second = profile("  dragon   ball ", "10.00");
+
+        Future<List<SearchResultItem>> leader = executor.submit(() -> coalescer.search("kleinanzeigen", first, client));
+        assertThat(client.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<SearchResultItem>> follower = executor.submit(() -> coalescer.search("kleinanzeigen", second, client));
+        while (coalescer.coalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        client.release.countDown();
+
+        List<SearchResultItem> leaderItems = leader.get(5, TimeUnit.SECONDS);
+        List<SearchResultItem> followerItems = follower.get(5, TimeUnit.SECONDS);
+        assertThat(client.calls).hasValue(1);
+        assertThat(followerItems).isEqualTo(leaderItems).isNotSameAs(leaderItems);
+    }
+
+    @Test
+    void cancellingTheFirstCallerLeavesTheFetchToTheOthers() throws Exception {
+        SearchProfile profile = profile("Dragon Ball", "10");
+        List<SearchResultItem> followerPages = new CopyOnWriteArrayList<>();
+
+        Future<List<SearchResultItem>> leader = executor.submit(() ->
+                coalescer.search("kleinanzeigen", profile, client));
+        assertThat(client.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<SearchResultItem>> follower = executor.submit(() ->
+                coalescer.search("kleinanzeigen", profile, client, followerPages::addAll));
+        while (coalescer.coalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        leader.cancel(true);
+        client.release.countDown();
+
+        List<SearchResultItem> followerItems = follower.get(5, TimeUnit.SECONDS);
+        assertThat(client.interrupted).isFalse();
+        assertThat(client.calls).hasValue(1);
+        assertThat(followerItems).extracting(SearchResultItem::id).containsExactly("1");
+        assertThat(followerPages).isEqualTo(followerItems);
+        assertThat(leader.isCancelled()).isTrue();
+    }
+
+    @Test
+    void countsAFailedSharedFetchOnce() throws Exception {
+        SearchProfile profile = profile("Dragon Ball", "10");
+        client.failing = true;
+
+        Future<List<SearchResultItem>> leader = executor.submit(() ->
+                coalescer.search("kleinanzeigen", profile, client));
+        assertThat(client.started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<List<SearchResultItem>> follower = executor.submit(() ->
+                coalescer.search("kleinanzeigen", profile, client));
+        while (coalescer.coalescedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        client.release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(meterRegistry.get("marketplace.errors").tag("marketplace", "kleinanzeigen").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void differentQueriesAreFetchedSeparately() {
+        client.release.countDown();
+
+        coalescer.search("kleinanzeigen", profile("Dragon Ball", "10"), client);
+        coalescer.search("kleinanzeigen", profile("One Piece", "10"), client);
+        coalescer.search("manayga", profile("One Piece", "10"), client);
+
+        assertThat(client.calls).hasValue(3);
+        assertThat(coalescer.coalescedCount()).isZero();
+    }
+
+    private static SearchProfile profile(String query, String maxPrice) {
+        return SearchProfile.create("Test", query, null, List.of("kleinanzeigen", "manayga"),
+                PriceRange.of(null, new BigDecimal(maxPrice)), 30);
+    }
+
+    private static final class BlockingClient implements MarketplaceClient {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean interrupted;
+        private volatile boolean failing;
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return true;
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            if (failing) {
+                throw new IllegalStateException("marketplace unavailable");
+            }
+            return List.of(new SearchResultItem("1", profile.getQuery(), "https://example.org/1", BigDecimal.TEN,
+                    "Berlin", Instant.now(), "kleinanzeigen"));
+        }
+    }
+}
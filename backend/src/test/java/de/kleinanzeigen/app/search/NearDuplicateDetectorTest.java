@@ -0,0 +1,61 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NearDuplicateDetectorTest {
+
+    private final NearDuplicateDetector detector = new NearDuplicateDetector(new DeduplicationProperties(true, 3));
+
+    @Test
+    void keepsTheCheapestOfferAndLinksTheOthers() {
+        List<SearchResultItem> collapsed = detector.collapse(List.of(
+                item("m-5", "Dragon Ball 05", "5.00", "manayga"),
+                item("r-5", "Dragon Ball 5", "4.20", "ebay_rebuy"),
+                item("b-5", "DRAGON BALL - 5", "6.99", "ebay_buchpark"),
+                item("m-6", "Dragon Ball 06", "5.00", "manayga")));
+
+        assertThat(collapsed).extracting(SearchResultItem::id).containsExactly("r-5", "m-6");
+        assertThat(collapsed.get(0).alternatives()).extracting(OfferLink::id).containsExactly("m-5", "b-5");
+        assertThat(collapsed.get(1).alternatives()).isEmpty();
+    }
+
+    @Test
+    void keepsOffersOfTheSameMarketplaceApart() {
+        List<SearchResultItem> items = List.of(
+                item("k-1", "Dragon Ball 5", "3.00", "kleinanzeigen"),
+                item("k-2", "Dragon Ball 5", "4.00", "kleinanzeigen"));
+
+        assertThat(detector.collapse(items)).isSameAs(items);
+    }
+
+    @Test
+    void doesNotMergeDifferentTitles() {
+        List<SearchResultItem> items = new ArrayList<>();
+        for (int volume = 1; volume <= 500; volume++) {
+            items.add(item("m-" + volume, "Dragon Ball " + volume, "5.00", "manayga"));
+            items.add(item("r-" + volume, "One Piece " + volume, "5.00", "ebay_rebuy"));
+        }
+
+        assertThat(detector.collapse(items)).hasSize(1000);
+    }
+
+    @Test
+    void returnsItemsUnchangedWhenDisabled() {
+        NearDuplicateDetector disabled = new NearDuplicateDetector(new DeduplicationProperties(false, 3));
+        List<SearchResultItem> items = List.of(
+                item("m-5", "Dragon Ball 05", "5.00", "manayga"),
+                item("r-5", "Dragon Ball 5", "4.20", "ebay_rebuy"));
+
+        assertThat(disabled.collapse(items)).isSameAs(items);
+    }
+
+    private SearchResultItem item(String id, String title, String price, String marketplaceId) {
+        return new SearchResultItem(id, title, "https://example.org/" + id, new BigDecimal(price), null, null,
+                marketplaceId);
+    }
+}
@@ -0,0 +1,71 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ResultBatchTest {
+
+    private final ResultFilterService filterService = new ResultFilterService();
+
+    @Test
+    void convertsBackToEqualItems() {
+        List<SearchResultItem> items = List.of(
+                item("1", "12.50", "Berlin", "kleinanzeigen"),
+                item("2", null, null, "manayga"),
+                new SearchResultItem("3", "Dragon Ball 3", "https://example.org/3", new BigDecimal("3.00"), "Berlin",
+                        null, "kleinanzeigen"));
+
+        ResultBatch batch = ResultBatch.of(items);
+
+        assertThat(batch.size()).isEqualTo(3);
+        assertThat(batch.marketplaceIds()).containsExactly("kleinanzeigen", "manayga");
+        assertThat(batch.toItems(batch.selectAll())).isEqualTo(items);
+    }
+
+    @Test
+    void selectsTheSameItemsAsTheListFilter() {
+        List<SearchResultItem> items = List.of(
+                item("1", "4.99", "Berlin", "kleinanzeigen"),
+                item("2", "5.00", "Berlin", "kleinanzeigen"),
+                item("3", "10.00", "Hamburg", "manayga"),
+                item("4", "10.01", "Hamburg", "manayga"),
+                item("5", null, "Hamburg", "manayga"));
+        SearchProfile profile = SearchProfile.create("Dragon Ball", "dragon ball", null,
+                List.of("kleinanzeigen", "manayga"), PriceRange.of(new BigDecimal("5"), new BigDecimal("10.005")), 30);
+
+        CompiledResultFilter filter = CompiledResultFilter.of(profile);
+        ResultBatch batch = ResultBatch.of(items);
+        BitSet selection = filterService.select(filter, batch);
+
+        assertThat(batch.toItems(selection)).isEqualTo(filterService.applyFilters(filter, items));
+        assertThat(selection.stream().toArray()).containsExactly(1, 2, 4);
+    }
+
+    @Test
+    void retainsOnlyTheRequestedMarketplace() {
+        ResultBatch batch = ResultBatch.of(List.of(
+                item("1", "1.00", "Berlin", "kleinanzeigen"),
+                item("2", "2.00", "Berlin", "manayga"),
+                item("3", "3.00", "Berlin", "kleinanzeigen")));
+
+        BitSet selection = batch.selectAll();
+        batch.retainMarketplace(selection, "kleinanzeigen");
+        assertThat(batch.toItems(selection)).extracting(SearchResultItem::id).containsExactly("1", "3");
+
+        batch.retainMarketplace(selection, "ebay_rebuy");
+        assertThat(selection.isEmpty()).isTrue();
+    }
+
+    private SearchResultItem item(String id, String price, String location, String marketplaceId) {
+        return new SearchResultItem(id, "Dragon Ball " + id, "https://example.org/" + id,
+                price != null ? new BigDecimal(price) : null, location, Instant.parse("2025-09-27T09:00:00Z"),
+                marketplaceId);
+    }
+}
@@ -0,0 +1,70 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ResultFilterServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-09-27T12:00:00Z");
+
+    private final ResultFilterService filterService = new ResultFilterService(Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private final List<SearchResultItem> items = List.of(
+            item("1", "Dragon Ball Band 1", "10.00", "10115 Berlin", 2, "kleinanzeigen"),
+            item("2", "Dragon Ball Band 2 - Defekt", "10.00", "10115 Berlin", 2, "kleinanzeigen"),
+            item("3", "Dragon Ball Band 3", "10.00", "20095 Hamburg", 2, "kleinanzeigen"),
+            item("4", "Dragon Ball Band 4", "10.00", "10115 Berlin", 48, "kleinanzeigen"),
+            item("5", "Dragon Ball Band 5", "30.00", "10115 Berlin", 2, "kleinanzeigen"),
+            item("6", "Dragon Ball Band 6", "30.00", "Manayga", 2, "manayga"),
+            item("7", "One Piece Band 7", "10.00", "10115 Berlin", 2, "kleinanzeigen"),
+            item("8", "Dragon Ball Band 8", null, null, -1, "kleinanzeigen"));
+
+    @Test
+    void appliesAllCriteriaOfTheProfile() {
+        CompiledResultFilter filter = CompiledResultFilter.of(profile());
+
+        assertThat(filterService.applyFilters(filter, items)).extracting(SearchResultItem::id)
+                .containsExactly("1", "6", "8");
+    }
+
+    @Test
+    void batchSelectionMatchesTheListFilter() {
+        CompiledResultFilter filter = CompiledResultFilter.of(profile());
+        ResultBatch batch = ResultBatch.of(items);
+
+        assertThat(batch.toItems(filterService.select(filter, batch)))
+                .isEqualTo(filterService.applyFilters(filter, items));
+    }
+
+    @Test
+    void passesItemsThroughWithoutFilters() {
+        SearchProfile profile = SearchProfile.create("Dragon Ball", "dragon ball", null, List.of("kleinanzeigen"),
+                PriceRange.of(null, null), 30);
+
+        assertThat(filterService.applyFilters(CompiledResultFilter.of(profile), items)).isSameAs(items);
+    }
+
+    private SearchProfile profile() {
+        SearchProfile profile = SearchProfile.create("Dragon Ball", "dragon ball", null,
+                List.of("kleinanzeigen", "manayga"), PriceRange.of(null, new BigDecimal("20")), 30);
+        profile.updateFilters(List.of("dragon", "ball"), List.of("defekt", "ersatzteil"), List.of("berlin", "manayga"),
+                List.of("hamburg"), 24, Map.of("manayga", PriceRange.of(null, new BigDecimal("40"))));
+        return profile;
+    }
+
+    private SearchResultItem item(String id, String title, String price, String location, int hoursAgo,
+            String marketplaceId) {
+        return new SearchResultItem(id, title, "https://example.org/" + id,
+                price != null ? new BigDecimal(price) : null, location,
+                hoursAgo >= 0 ? NOW.minusSeconds(hoursAgo * 3600L) : null, marketplaceId);
+    }
+}
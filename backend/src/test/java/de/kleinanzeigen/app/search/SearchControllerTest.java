@@ -0,0 +1,121 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.ApiExceptionHandler;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class SearchControllerTest {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("(?m)^event:(\\w+)$");
+
+    private final SearchProfileCache profileCache = mock(SearchProfileCache.class);
+    private final MarketplaceMetrics metrics = new MarketplaceMetrics(new SimpleMeterRegistry());
+    private final SearchExecutionProperties executionProperties =
+            new SearchExecutionProperties(Duration.ofSeconds(2), Map.of());
+    private final SearchExecutionService executionService = new SearchExecutionService(
+            profileCache,
+            new MarketplaceClientRegistry(List.of(new StubClient("fast", Duration.ZERO),
+                    new StubClient("later", Duration.ofMillis(100)))),
+            new ResultFilterService(),
+            executionProperties,
+            new SeenItemTracker(new IncrementalSearchProperties(2048, Duration.ofDays(7))),
+            new MarketplaceQueryCoalescer(metrics, true),
+            new NearDuplicateDetector(new DeduplicationProperties(true, 3)),
+            metrics,
+            true);
+    private final SearchController controller = new SearchController(executionService,
+            mock(SearchJobScheduler.class), executionProperties, true);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        controller.shutdown();
+        executionService.shutdown();
+    }
+
+    @Test
+    void streamsItemsAndMarketplaceEventsBeforeSummary() throws Exception {
+        SearchProfile profile = SearchProfile.create("Test", "dragon ball", null, List.of("later", "fast"), null, 30);
+        ReflectionTestUtils.setField(profile, "id", 7L);
+        when(profileCache.get(7L)).thenReturn(Optional.of(SearchProfileSnapshot.of(profile)));
+
+        MvcResult result = mockMvc.perform(get("/api/search/profiles/7/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5000);
+
+        String body = result.getResponse().getContentAsString();
+        List<String> events = new ArrayList<>();
+        Matcher matcher = EVENT_NAME.matcher(body);
+        while (matcher.find()) {
+            events.add(matcher.group(1));
+        }
+        assertThat(events).containsExactly("items", "marketplace", "items", "marketplace", "summary");
+        assertThat(body.indexOf("\"fast-1\"")).isPositive().isLessThan(body.indexOf("\"later-1\""));
+    }
+
+    @Test
+    void answersUnknownProfileWithNotFound() throws Exception {
+        mockMvc.perform(post("/api/search/profiles/42/execute").param("async", "true"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("not-found"));
+
+        mockMvc.perform(get("/api/search/profiles/42/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.detail").value("search profile not found: 42"));
+    }
+
+    private record StubClient(String marketplaceId, Duration delay) implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            return List.of(new SearchResultItem(marketplaceId + "-1", "Dragon Ball 01", "https://example.org/1",
+                    BigDecimal.TEN, marketplaceId, Instant.now(), marketplaceId));
+        }
+    }
+}
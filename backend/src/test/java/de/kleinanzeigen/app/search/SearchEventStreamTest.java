@@ -0,0 +1,140 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class SearchEventStreamTest {
+
+    private final MarketplaceMetrics metrics = new MarketplaceMetrics(new SimpleMeterRegistry());
+    private final SearchExecutionService service = new SearchExecutionService(
+            mock(SearchProfileCache.class),
+            new MarketplaceClientRegistry(List.of(
+                    new StubClient("fast", Duration.ZERO),
+                    new StubClient("later", Duration.ofMillis(100)))),
+            new ResultFilterService(),
+            new SearchExecutionProperties(Duration.ofSeconds(2), Map.of()),
+            new SeenItemTracker(new IncrementalSearchProperties(2048, Duration.ofDays(7))),
+            new MarketplaceQueryCoalescer(metrics, true),
+            new NearDuplicateDetector(new DeduplicationProperties(true, 3)),
+            metrics,
+            true);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void slowClientDoesNotHoldBackOtherMarketplaces() {
+        // The first event blocks its sender like a client that stops reading
+        RecordingEmitter emitter = new RecordingEmitter(Duration.ofMillis(500), false);
+        SearchEventStream stream = new SearchEventStream(emitter);
+
+        SearchResult result = service.execute(snapshot(), false, stream);
+        stream.complete(result);
+
+        MarketplaceStatus later = result.marketplaces().stream()
+                .filter(status -> status.marketplaceId().equals("later"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(later.status()).isEqualTo(MarketplaceStatus.Status.OK);
+        assertThat(later.durationMillis()).isLessThan(500);
+        assertThat(emitter.events).containsExactly("items", "items", "marketplace", "marketplace", "summary");
+    }
+
+    @Test
+    void disconnectedClientStillGetsFullExecution() {
+        RecordingEmitter emitter = new RecordingEmitter(Duration.ZERO, true);
+        SearchEventStream stream = new SearchEventStream(emitter);
+
+        SearchResult result = service.execute(snapshot(), false, stream);
+        stream.complete(result);
+
+        assertThat(result.marketplaces())
+                .extracting(MarketplaceStatus::marketplaceId, MarketplaceStatus::status)
+                .containsExactly(
+                        tuple("fast", MarketplaceStatus.Status.OK),
+                        tuple("later", MarketplaceStatus.Status.OK));
+        assertThat(result.items()).isNotEmpty();
+        // Nothing is sent after the first failed attempt
+        assertThat(emitter.events).containsExactly("items");
+    }
+
+    private static SearchProfileSnapshot snapshot() {
+        SearchProfile profile = SearchProfile.create("Test", "dragon ball", null, List.of("fast", "later"), null, 30);
+        ReflectionTestUtils.setField(profile, "id", 7L);
+        return SearchProfileSnapshot.of(profile);
+    }
+
+    /**
+     * Records the event names instead of writing them. The first send takes {@code firstSendDelay}, with
+     * {@code disconnected} every send fails like a closed connection.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final Duration firstSendDelay;
+        private final boolean disconnected;
+
+        RecordingEmitter(Duration firstSendDelay, boolean disconnected) {
+            this.firstSendDelay = firstSendDelay;
+            this.disconnected = disconnected;
+        }
+
+        @Override
+        public void send(SseEmitter.SseEventBuilder builder) throws IOException {
+            String head = builder.build().iterator().next().getData().toString();
+            events.add(head.substring("event:".length(), head.indexOf('\n')));
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            if (events.size() == 1) {
+                try {
+                    Thread.sleep(firstSendDelay.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private record StubClient(String marketplaceId, Duration delay) implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            return List.of(new SearchResultItem(marketplaceId + "-1", "Dragon Ball 01", "https://example.org/1",
+                    BigDecimal.TEN, marketplaceId, Instant.now(), marketplaceId));
+        }
+    }
+}
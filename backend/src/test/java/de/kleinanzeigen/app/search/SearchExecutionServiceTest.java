@@ -0,0 +1,118 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SearchExecutionServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MarketplaceMetrics metrics = new MarketplaceMetrics(meterRegistry);
+    private final SearchExecutionService service = new SearchExecutionService(
+            mock(SearchProfileCache.class),
+            new MarketplaceClientRegistry(List.of(
+                    new StubClient("fast", Duration.ZERO, false),
+                    new StubClient("slow", Duration.ofSeconds(5), false),
+                    new StubClient("broken", Duration.ZERO, true))),
+            new ResultFilterService(),
+            new SearchExecutionProperties(Duration.ofSeconds(2), Map.of("slow", Duration.ofMillis(300))),
+            new SeenItemTracker(new IncrementalSearchProperties(2048, Duration.ofDays(7))),
+            new MarketplaceQueryCoalescer(metrics, true),
+            new NearDuplicateDetector(new DeduplicationProperties(true, 3)),
+            metrics,
+            true);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void returnsPartialResultWithStatusPerMarketplace() {
+        SearchProfile profile = SearchProfile.create("Test", "dragon ball", null,
+                List.of("fast", "slow", "broken"), null, 30);
+
+        long startedAt = System.nanoTime();
+        SearchResult result = service.execute(profile);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+
+        assertThat(elapsedMillis).isLessThan(2000);
+        assertThat(result.items()).extracting(SearchResultItem::id).containsExactly("fast-1");
+        assertThat(result.marketplaces())
+                .extracting(MarketplaceStatus::marketplaceId, MarketplaceStatus::status)
+                .containsExactly(
+                        tuple("fast", MarketplaceStatus.Status.OK),
+                        tuple("slow", MarketplaceStatus.Status.TIMED_OUT),
+                        tuple("broken", MarketplaceStatus.Status.FAILED));
+        assertThat(meterRegistry.get("marketplace.errors")
+                .tags("marketplace", "broken", "exception", "IllegalStateException").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("marketplace.errors")
+                .tags("marketplace", "slow", "exception", "TimeoutException").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("search.items.filtered").tag("marketplace", "fast").summary().totalAmount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void reportsProgressToListenerAsMarketplacesFinish() {
+        SearchProfile profile = SearchProfile.create("Test", "dragon ball", null,
+                List.of("slow", "fast", "broken"), null, 30);
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        service.execute(SearchProfileSnapshot.of(profile), false, new SearchExecutionListener() {
+            @Override
+            public void onItems(String marketplaceId, List<SearchResultItem> items) {
+                items.forEach(item -> events.add("items:" + item.id()));
+            }
+
+            @Override
+            public void onMarketplaceDone(MarketplaceStatus status) {
+                events.add(status.marketplaceId() + ":" + status.status());
+            }
+        });
+
+        assertThat(events).containsExactlyInAnyOrder("items:fast-1", "fast:OK", "broken:FAILED", "slow:TIMED_OUT");
+        assertThat(events.indexOf("items:fast-1")).isLessThan(events.indexOf("fast:OK"));
+        assertThat(events).last().isEqualTo("slow:TIMED_OUT");
+    }
+
+    private record StubClient(String marketplaceId, Duration delay, boolean failing) implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            if (failing) {
+                throw new IllegalStateException("marketplace unavailable");
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            return List.of(new SearchResultItem(marketplaceId + "-1", "Dragon Ball 01", "https://example.org/1",
+                    BigDecimal.TEN, marketplaceId, Instant.now(), marketplaceId));
+        }
+    }
+}
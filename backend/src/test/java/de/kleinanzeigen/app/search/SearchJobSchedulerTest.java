@@ -0,0 +1,271 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.searchresult.ResultSearchIndex;
+import de.kleinanzeigen.app.searchresult.SearchResultStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SearchJobSchedulerTest {
+
+    private static final Duration PERIOD = Duration.ofMinutes(10);
+    private static final SchedulerProperties PROPERTIES = new SchedulerProperties(Duration.ofSeconds(1),
+            Duration.ofSeconds(30), 3, 2, Map.of(), 64, 0.5, 1, 2, Duration.ofMinutes(15), Duration.ofSeconds(10));
+
+    private final MutableClock clock = new MutableClock();
+    private final List<Runnable> started = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchResultStore resultStore = mock(SearchResultStore.class);
+    private int newItemsPerRun;
+    private int nextItemId;
+    private final SearchJobScheduler scheduler = newScheduler(PROPERTIES);
+
+    @Test
+    void spreadsProfilesOverTheirPeriod() {
+        Instant scheduledAt = clock.instant();
+        Duration period = Duration.ofHours(1);
+        int[] runsPerTenMinutes = new int[7];
+        for (long profileId = 1; profileId <= 1200; profileId++) {
+            scheduler.schedule(profileId, period, List.of("manayga"));
+            Instant nextRun = scheduler.nextRunAt(profileId).orElseThrow();
+            assertThat(nextRun).isAfter(scheduledAt).isBeforeOrEqualTo(scheduledAt.plus(period).plusSeconds(30));
+            runsPerTenMinutes[(int) Duration.between(scheduledAt, nextRun).toMinutes() / 10]++;
+        }
+
+        for (int slice = 0; slice < 6; slice++) {
+            assertThat(runsPerTenMinutes[slice]).isBetween(120, 280);
+        }
+        Instant before = scheduler.nextRunAt(42L).orElseThrow();
+        scheduler.schedule(42L, period, List.of("manayga"));
+        assertThat(scheduler.nextRunAt(42L)).contains(before);
+    }
+
+    @Test
+    void holdsBackRunsAboveConcurrencyLimits() {
+        for (long profileId = 1; profileId <= 4; profileId++) {
+            scheduler.schedule(profileId, PERIOD, List.of("manayga"));
+        }
+        scheduler.schedule(5L, PERIOD, List.of("kleinanzeigen"));
+        clock.advance(PERIOD.plusMinutes(1));
+
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(3);
+        assertThat(meterRegistry.get("search.jobs.in.flight").gauge().value()).isEqualTo(3);
+
+        runAll();
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(5);
+    }
+
+    @Test
+    void skipsRunWhilePreviousRunIsGoing() {
+        scheduler.schedule(1L, PERIOD, List.of("manayga"));
+        clock.advance(PERIOD.plusMinutes(1));
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(1);
+
+        clock.advance(PERIOD.plusMinutes(1));
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(1);
+        assertThat(meterRegistry.get("search.jobs.skipped").counter().count()).isEqualTo(1);
+
+        runAll();
+        clock.advance(PERIOD.plusMinutes(1));
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(2);
+    }
+
+    @Test
+    void doesNotRunCancelledProfiles() {
+        scheduler.schedule(1L, PERIOD, List.of("manayga"));
+        scheduler.cancelProfile(1L);
+        clock.advance(PERIOD.plusMinutes(1));
+
+        scheduler.dispatchDue();
+
+        assertThat(started).isEmpty();
+        assertThat(scheduler.nextRunAt(1L)).isEmpty();
+    }
+
+    @Test
+    void dropsResultsOfRunsForCancelledProfiles() {
+        scheduler.schedule(1L, PERIOD, List.of("manayga"));
+        scheduler.schedule(2L, PERIOD, List.of("kleinanzeigen"));
+        clock.advance(PERIOD.plusMinutes(1));
+        scheduler.dispatchDue();
+        assertThat(started).hasSize(2);
+
+        // Deleting the profile while its run is going must not leave results behind
+        scheduler.cancelProfile(1L);
+        runAll();
+
+        verify(resultStore, never()).upsert(eq(1L), anyList(), any());
+        verify(resultStore).upsert(eq(2L), anyList(), any());
+    }
+
+    @Test
+    void stretchesIntervalOfQuietProfiles() {
+        scheduler.schedule(1L, Duration.ofMinutes(30), Duration.ofMinutes(10), Duration.ofMinutes(120),
+                List.of("manayga"));
+
+        runNext(1L);
+        assertThat(scheduler.effectiveInterval(1L)).contains(Duration.ofMinutes(30));
+        runNext(1L);
+        assertThat(scheduler.effectiveInterval(1L)).contains(Duration.ofMinutes(120));
+    }
+
+    @Test
+    void shrinksIntervalOfBusyProfilesDownToFloor() {
+        newItemsPerRun = 3;
+        scheduler.schedule(1L, Duration.ofMinutes(30), Duration.ofMinutes(5), Duration.ofMinutes(120),
+                List.of("manayga"));
+
+        runNext(1L);
+        runNext(1L);
+        assertThat(scheduler.effectiveInterval(1L)).contains(Duration.ofMinutes(10));
+        runNext(1L);
+        runNext(1L);
+        assertThat(scheduler.effectiveInterval(1L).orElseThrow()).isLessThan(Duration.ofMinutes(10))
+                .isGreaterThanOrEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void keepsFixedIntervalWithoutBounds() {
+        newItemsPerRun = 50;
+        scheduler.schedule(1L, PERIOD, List.of("manayga"));
+
+        runNext(1L);
+        runNext(1L);
+
+        assertThat(scheduler.effectiveInterval(1L)).contains(PERIOD);
+    }
+
+    @Test
+    void attachesToQueuedOrRunningManualJob() {
+        SearchJob job = scheduler.submit(snapshot(1L, "manayga"), false);
+        assertThat(job.status()).isEqualTo(SearchJob.Status.RUNNING);
+
+        assertThat(scheduler.submit(snapshot(1L, "manayga"), false).id()).isEqualTo(job.id());
+        assertThat(scheduler.submit(snapshot(1L, "manayga"), true).id()).isNotEqualTo(job.id());
+        assertThat(started).hasSize(1);
+
+        runAll();
+        SearchJob done = scheduler.job(job.id()).orElseThrow();
+        assertThat(done.status()).isEqualTo(SearchJob.Status.DONE);
+        assertThat(done.result().searchProfileId()).isEqualTo(1L);
+    }
+
+    @Test
+    void queuesManualJobsBehindConcurrencyLimits() {
+        for (long profileId = 1; profileId <= 3; profileId++) {
+            scheduler.submit(snapshot(profileId, "marketplace-" + profileId), false);
+        }
+        SearchJob queued = scheduler.submit(snapshot(4L, "manayga"), false);
+        scheduler.submit(snapshot(5L, "manayga"), false);
+        assertThat(started).hasSize(3);
+        assertThat(queued.status()).isEqualTo(SearchJob.Status.QUEUED);
+
+        assertThatThrownBy(() -> scheduler.submit(snapshot(6L, "manayga"), false))
+                .isInstanceOfSatisfying(SearchJobQueueFullException.class,
+                        e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(10)));
+
+        runAll();
+        assertThat(started).hasSize(5);
+        assertThat(scheduler.job(queued.id()).orElseThrow().status()).isEqualTo(SearchJob.Status.RUNNING);
+    }
+
+    @Test
+    void replacesDefaultLimitsOnVirtualThreads() {
+        SearchJobScheduler virtualScheduler = newScheduler(PROPERTIES.forVirtualThreads());
+
+        for (long profileId = 1; profileId <= 5; profileId++) {
+            virtualScheduler.submit(snapshot(profileId, "manayga"), false);
+        }
+
+        assertThat(started).hasSize(5);
+    }
+
+    private SearchJobScheduler newScheduler(SchedulerProperties properties) {
+        SearchExecutionService executionService = mock(SearchExecutionService.class);
+        // Every run repeats the same listings; the shared seen set would report them all as new
+        when(executionService.execute(anyLong())).thenAnswer(invocation -> {
+            List<SearchResultItem> items = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                items.add(item("known-" + i));
+            }
+            for (int i = 0; i < newItemsPerRun; i++) {
+                items.add(item("new-" + nextItemId++));
+            }
+            return new SearchResult(invocation.getArgument(0), clock.instant(), items, List.of(), items.size());
+        });
+        when(executionService.execute(any(SearchProfileSnapshot.class), anyBoolean())).thenAnswer(invocation ->
+                new SearchResult(invocation.<SearchProfileSnapshot>getArgument(0).id(), clock.instant(), List.of(),
+                        List.of(), 0));
+        return new SearchJobScheduler(mock(SearchProfileCache.class), executionService,
+                resultStore, mock(ResultSearchIndex.class), meterRegistry, properties, clock,
+                started::add);
+    }
+
+    private static SearchResultItem item(String id) {
+        return new SearchResultItem(id, "Dragon Ball " + id, "https://example.org/" + id, null, null, null, "manayga");
+    }
+
+    private static SearchProfileSnapshot snapshot(Long profileId, String marketplaceId) {
+        return new SearchProfileSnapshot(profileId, List.of(marketplaceId), 10, 10, 10, null, null);
+    }
+
+    private void runNext(Long profileId) {
+        clock.advance(Duration.between(clock.instant(), scheduler.nextRunAt(profileId).orElseThrow()));
+        scheduler.dispatchDue();
+        started.get(started.size() - 1).run();
+    }
+
+    private void runAll() {
+        new ArrayList<>(started).forEach(Runnable::run);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-09-27T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
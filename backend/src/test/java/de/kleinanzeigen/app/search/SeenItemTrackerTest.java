@@ -0,0 +1,87 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SeenItemTrackerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final SeenItemTracker tracker = new SeenItemTracker(
+            new IncrementalSearchProperties(100, Duration.ofHours(2)), clock);
+
+    @Test
+    void returnsOnlyItemsNotSeenInEarlierRuns() {
+        assertThat(tracker.retainUnseen(1L, List.of(item("a"), item("b")))).extracting(SearchResultItem::id)
+                .containsExactly("a", "b");
+        assertThat(tracker.retainUnseen(1L, List.of(item("a"), item("b"), item("c"))))
+                .extracting(SearchResultItem::id)
+                .containsExactly("c");
+        assertThat(tracker.retainUnseen(2L, List.of(item("a")))).hasSize(1);
+    }
+
+    @Test
+    void forgetsItemsThatWereNotSeenWithinTheMaximumAge() {
+        tracker.retainUnseen(1L, List.of(item("a"), item("b")));
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(tracker.retainUnseen(1L, List.of(item("a")))).isEmpty();
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(tracker.retainUnseen(1L, List.of(item("a"), item("b")))).extracting(SearchResultItem::id)
+                .containsExactly("b");
+    }
+
+    @Test
+    void keepsBatchesLargerThanAGeneration() {
+        List<SearchResultItem> items = IntStream.range(0, 120).mapToObj(i -> item("item-" + i)).toList();
+
+        assertThat(tracker.retainUnseen(1L, items)).hasSize(120);
+        assertThat(tracker.retainUnseen(1L, items)).isEmpty();
+        assertThat(tracker.retainUnseen(1L, items)).isEmpty();
+    }
+
+    @Test
+    void distinguishesMarketplaces() {
+        tracker.retainUnseen(1L, List.of(item("a")));
+
+        SearchResultItem sameIdOtherMarketplace = new SearchResultItem("a", "Dragon Ball", "https://example.org/a",
+                null, null, null, "ebay_rebuy");
+        assertThat(tracker.retainUnseen(1L, List.of(sameIdOtherMarketplace))).hasSize(1);
+    }
+
+    private SearchResultItem item(String id) {
+        return new SearchResultItem(id, "Dragon Ball", "https://example.org/" + id, null, null, null, "manayga");
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2025-09-27T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package de.kleinanzeigen.app.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.kleinanzeigen.app.marketplace.MarketplaceClient;
+import de.kleinanzeigen.app.marketplace.MarketplaceClientRegistry;
+import de.kleinanzeigen.app.marketplace.MarketplaceSearchException;
+import de.kleinanzeigen.app.marketplace.http.HostRateLimiter;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpClient;
+import de.kleinanzeigen.app.marketplace.http.MarketplaceHttpProperties;
+import de.kleinanzeigen.app.marketplace.http.ResponseCache;
+import de.kleinanzeigen.app.marketplace.http.ResponseCacheProperties;
+import de.kleinanzeigen.app.searchprofile.SearchProfile;
+import de.kleinanzeigen.app.searchprofile.SearchProfileCache;
+import de.kleinanzeigen.app.searchprofile.SearchProfileSnapshot;
+import de.kleinanzeigen.app.shared.MarketplaceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Runs many executions on virtual threads and fails if JFR reports a virtual thread parking while pinned to its
+ * carrier, e.g. inside a {@code synchronized} block. One client sleeps like a network fetch, the other fetches from
+ * a local server through {@link MarketplaceHttpClient}, so the rate limiter and the response cache block for real.
+ */
+class VirtualThreadPinningTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private HttpServer server;
+    private MarketplaceHttpClient httpClient;
+    private SearchExecutionService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/search", VirtualThreadPinningTest::respond);
+        server.start();
+
+        MarketplaceHttpProperties httpProperties = new MarketplaceHttpProperties(null, null, null, null, null,
+                Map.of("localhost", new MarketplaceHttpProperties.Host(null, null, null,
+                        new MarketplaceHttpProperties.RateLimit(Duration.ofMillis(2), 4))));
+        ResponseCache responseCache = new ResponseCache(new ResponseCacheProperties(true, DataSize.ofKilobytes(64),
+                cacheDirectory, DataSize.ofMegabytes(1), Duration.ofMinutes(1), Map.of()));
+        httpClient = new MarketplaceHttpClient(httpProperties, responseCache,
+                new HostRateLimiter(httpProperties), new MarketplaceMetrics(new SimpleMeterRegistry()), true);
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/search?q=";
+
+        service = new SearchExecutionService(
+                mock(SearchProfileCache.class),
+                new MarketplaceClientRegistry(List.of(new BlockingClient("kleinanzeigen"),
+                        new HttpBackedClient("manayga", httpClient, baseUrl))),
+                new ResultFilterService(),
+                new SearchExecutionProperties(Duration.ofSeconds(10), Map.of()),
+                new SeenItemTracker(new IncrementalSearchProperties(2048, Duration.ofDays(7))),
+                new MarketplaceQueryCoalescer(new MarketplaceMetrics(new SimpleMeterRegistry()), true),
+                new NearDuplicateDetector(new DeduplicationProperties(true, 3)),
+                new MarketplaceMetrics(new SimpleMeterRegistry()),
+                true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentExecutionsDoNotPinCarrierThreads() throws Exception {
+        Path dump = Files.createTempFile("virtual-thread-pinning", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+                recording.start();
+                // The second round is served from the response cache
+                for (int round = 0; round < 2; round++) {
+                    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                        for (long profileId = 1; profileId <= 250; profileId++) {
+                            SearchProfileSnapshot snapshot = snapshot(profileId);
+                            executor.submit(() -> service.execute(snapshot, true, SearchExecutionListener.NONE));
+                        }
+                    }
+                }
+                recording.stop();
+                recording.dump(dump);
+            }
+
+            List<String> pinnedAt = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                pinnedAt.add(event.getStackTrace() != null ? event.getStackTrace().toString() : event.toString());
+            }
+            assertThat(pinnedAt).isEmpty();
+            assertThat(httpClient.responseCacheStats().misses()).isPositive();
+            assertThat(httpClient.responseCacheStats().hits()).isPositive();
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static SearchProfileSnapshot snapshot(long profileId) {
+        // A few distinct queries, so executions both coalesce and run side by side
+        SearchProfile profile = SearchProfile.create("Profile " + profileId, "dragon ball " + profileId % 25, null,
+                List.of("kleinanzeigen", "manayga"), null, 30);
+        ReflectionTestUtils.setField(profile, "id", profileId);
+        return SearchProfileSnapshot.of(profile);
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        StringBuilder page = new StringBuilder("<html><body><ul>");
+        for (int i = 0; i < 10; i++) {
+            page.append("<li data-id=\"").append(i).append("\">Dragon Ball ").append(i).append("</li>");
+        }
+        byte[] body = page.append("</ul></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private record BlockingClient(String marketplaceId) implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            List<SearchResultItem> items = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                items.add(new SearchResultItem(marketplaceId + "-" + i, profile.getQuery() + " " + i,
+                        "https://example.org/" + i, BigDecimal.valueOf(5 + i), null, Instant.now(), marketplaceId));
+            }
+            return items;
+        }
+    }
+
+    private record HttpBackedClient(String marketplaceId, MarketplaceHttpClient httpClient, String baseUrl)
+            implements MarketplaceClient {
+
+        @Override
+        public boolean supports(String marketplaceId) {
+            return this.marketplaceId.equals(marketplaceId);
+        }
+
+        @Override
+        public List<SearchResultItem> search(SearchProfile profile) {
+            String url = baseUrl + URLEncoder.encode(profile.getQuery(), StandardCharsets.UTF_8);
+            try {
+                List<SearchResultItem> items = new ArrayList<>();
+                for (Element listing : httpClient.fetchDocument(marketplaceId, url).select("li[data-id]")) {
+                    items.add(new SearchResultItem(marketplaceId + "-" + listing.attr("data-id"), listing.text(),
+                            url, BigDecimal.TEN, null, Instant.now(), marketplaceId));
+                }
+                return items;
+            } catch (IOException e) {
+                throw new MarketplaceSearchException("fetching " + url + " failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package de.kleinanzeigen.app.searchprofile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class SearchProfileCacheTest {
+
+    private final SearchProfileRepository repository = mock(SearchProfileRepository.class);
+    private final SearchProfileCache cache = new SearchProfileCache(repository);
+
+    @Test
+    void loadsProfileOnceUntilEvicted() {
+        SearchProfile profile = SearchProfile.create("Test", "dragon ball", null, List.of("manayga", "ebay_rebuy"),
+                null, 30);
+        when(repository.findById(1L)).thenReturn(Optional.of(profile));
+
+        SearchProfileSnapshot first = cache.get(1L).orElseThrow();
+        assertThat(cache.get(1L)).containsSame(first);
+        assertThat(first.marketplaceIds()).containsExactly("manayga", "ebay_rebuy");
+        assertThat(first.frequencyMinutes()).isEqualTo(30);
+        verify(repository, times(1)).findById(1L);
+
+        cache.evict(1L);
+        assertThat(cache.get(1L)).isPresent().get().isNotSameAs(first);
+        verify(repository, times(2)).findById(1L);
+    }
+
+    @Test
+    void doesNotCacheMissingProfiles() {
+        when(repository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThat(cache.get(2L)).isEmpty();
+        assertThat(cache.get(2L)).isEmpty();
+        verify(repository, times(2)).findById(2L);
+    }
+}
@@ -0,0 +1,87 @@
+package de.kleinanzeigen.app.searchresult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import de.kleinanzeigen.app.search.SearchResultItem;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+@JdbcTest
+@Import({SearchResultStore.class, ResultSearchIndex.class})
+class ResultSearchIndexTest {
+
+    private static final Instant FIRST_RUN = Instant.parse("2025-09-27T10:00:00Z");
+    private static final Instant SECOND_RUN = Instant.parse("2025-09-27T10:30:00Z");
+
+    @Autowired
+    private SearchResultStore store;
+
+    @Autowired
+    private ResultSearchIndex index;
+
+    @Test
+    void rebuildsFromTheTableAndFoldsGermanSpellings() {
+        store.upsert(1L, List.of(
+                item("1", "Pullover Größe M", "12.50"),
+                item("2", "Dragon Ball Band 05", "4.00"),
+                item("3", "Dragon Ball Band 6", "25.00")), FIRST_RUN);
+        store.upsert(2L, List.of(item("4", "Dragon Ball Band 5", null)), SECOND_RUN);
+        index.rebuild();
+
+        assertThat(search("groesse", null, null)).extracting(hit -> hit.result().item().id()).containsExactly("1");
+        assertThat(search("GROSSE m", null, null)).hasSize(1);
+        assertThat(search("ball band 5", null, null)).extracting(ResultSearchHit::profileId).containsExactly(2L, 1L);
+        assertThat(search("dragon ball", null, new BigDecimal("20"))).extracting(hit -> hit.result().item().id())
+                .containsExactly("4", "2");
+        assertThat(search("dragon ball", 1L, new BigDecimal("20"))).extracting(hit -> hit.result().item().id())
+                .containsExactly("2");
+        assertThat(search("dragon naruto", null, null)).isEmpty();
+    }
+
+    @Test
+    void followsTitleChangesAndDeletedProfiles() {
+        index.rebuild();
+        index.index(1L, List.of(item("1", "Dragon Ball Band 1", "5.00")), FIRST_RUN);
+        index.index(1L, List.of(item("1", "One Piece Band 1", "5.00")), SECOND_RUN);
+
+        assertThat(search("dragon", null, null)).isEmpty();
+        List<ResultSearchHit> hits = search("piece", null, null);
+        assertThat(hits).hasSize(1);
+        assertThat(hits.get(0).result().firstSeen()).isEqualTo(FIRST_RUN);
+        assertThat(hits.get(0).result().lastSeen()).isEqualTo(SECOND_RUN);
+
+        index.removeProfile(1L);
+        assertThat(search("piece", null, null)).isEmpty();
+    }
+
+    @Test
+    void compactsOnceMostDocumentsAreRemoved() {
+        index.rebuild();
+        index.index(1L, List.of(item("1", "Dragon Ball Band 1", "5.00"), item("2", "Dragon Ball Band 2", "5.00")),
+                FIRST_RUN);
+        index.index(2L, List.of(item("3", "Dragon Ball Band 3", "5.00")), FIRST_RUN);
+
+        index.removeProfile(1L);
+
+        assertThat(index.documentCount()).isEqualTo(1);
+        assertThat(search("dragon ball", null, null)).extracting(ResultSearchHit::profileId).containsExactly(2L);
+        index.index(1L, List.of(item("1", "Dragon Ball Band 1", "5.00")), SECOND_RUN);
+        assertThat(search("dragon ball", null, null)).extracting(hit -> hit.result().item().id())
+                .containsExactly("1", "3");
+    }
+
+    private List<ResultSearchHit> search(String text, Long profileId, BigDecimal maxPrice) {
+        return index.search(new ResultSearchQuery(text, profileId, null, maxPrice, null, null, 50));
+    }
+
+    private SearchResultItem item(String id, String title, String price) {
+        return new SearchResultItem(id, title, "https://example.org/" + id,
+                price != null ? new BigDecimal(price) : null, "Berlin", Instant.parse("2025-09-27T09:00:00Z"),
+                "kleinanzeigen");
+    }
+}
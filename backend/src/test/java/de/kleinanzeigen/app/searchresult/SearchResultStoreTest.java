@@ -0,0 +1,110 @@
+package de.kleinanzeigen.app.searchresult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.kleinanzeigen.app.search.ResultBatch;
+import de.kleinanzeigen.app.search.SearchResultItem;
+import de.kleinanzeigen.app.searchprofile.PriceRange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+@JdbcTest
+@Import(SearchResultStore.class)
+class SearchResultStoreTest {
+
+    @Autowired
+    private SearchResultStore store;
+
+    @Test
+    void upsertKeepsFirstSeenAndUpdatesLastSeen() {
+        Instant firstRun = Instant.parse("2025-09-27T10:00:00Z");
+        Instant secondRun = Instant.parse("2025-09-27T10:30:00Z");
+
+        store.upsert(1L, List.of(item("1", "12.50"), item("2", "3.00")), firstRun);
+        store.upsert(1L, List.of(item("1", "9.99")), secondRun);
+
+        List<StoredSearchResultItem> stored = store.findByProfile(1L);
+        assertThat(stored).hasSize(2);
+
+        StoredSearchResultItem updated = stored.get(0);
+        assertThat(updated.item().id()).isEqualTo("1");
+        assertThat(updated.item().price()).isEqualByComparingTo("9.99");
+        assertThat(updated.firstSeen()).isEqualTo(firstRun);
+        assertThat(updated.lastSeen()).isEqualTo(secondRun);
+
+        assertThat(stored.get(1).lastSeen()).isEqualTo(firstRun);
+        assertThat(store.findByProfile(2L)).isEmpty();
+    }
+
+    @Test
+    void batchHoldsTheSameRowsAsTheItemList() {
+        Instant firstRun = Instant.parse("2025-09-27T10:00:00Z");
+        Instant secondRun = Instant.parse("2025-09-27T10:30:00Z");
+        store.upsert(1L, List.of(item("1", "12.50"), item("2", "3.00")), firstRun);
+        store.upsert(1L, List.of(new SearchResultItem("3", "Dragon Ball 3", "https://manayga.de/products/3", null,
+                null, null, "manayga")), secondRun);
+
+        StoredResultBatch batch = store.findBatchByProfile(1L);
+
+        assertThat(batch.items().size()).isEqualTo(3);
+        assertThat(batch.items().priceCents(0)).isEqualTo(ResultBatch.NO_VALUE);
+        assertThat(batch.toStoredItems(batch.items().selectAll())).isEqualTo(store.findByProfile(1L));
+        assertThat(batch.summarizeByMarketplace(batch.items().selectAll())).containsExactly(
+                new MarketplaceResultSummary("manayga", 3, 2, new BigDecimal("3.00"), new BigDecimal("12.50"),
+                        new BigDecimal("7.75")));
+    }
+
+    @Test
+    void pagesFollowFirstSeenAndAreStableWhileResultsAreUpserted() {
+        Instant firstRun = Instant.parse("2025-09-27T10:00:00Z");
+        Instant secondRun = Instant.parse("2025-09-27T10:30:00Z");
+        store.upsert(1L, List.of(item("1", "12.50"), item("2", "3.00"), item("3", "4.00")), firstRun);
+        store.upsert(1L, List.of(item("4", "5.00"), item("5", "6.00")), secondRun);
+        PriceRange anyPrice = PriceRange.of(null, null);
+
+        List<StoredSearchResultItem> first = store.findPage(1L, anyPrice, null, null, 2);
+        assertThat(first).extracting(stored -> stored.item().id()).containsExactly("5", "4");
+
+        // Seen again, but first seen does not move
+        store.upsert(1L, List.of(item("1", "1.00"), item("5", "6.00")), Instant.parse("2025-09-27T11:00:00Z"));
+        ResultCursor cursor = ResultCursor.decode(ResultCursor.after(first.get(1)).encode());
+        assertThat(store.findPage(1L, anyPrice, null, cursor, 10))
+                .extracting(stored -> stored.item().id()).containsExactly("3", "2", "1");
+        assertThat(store.findPage(1L, PriceRange.of(new BigDecimal("3.50"), new BigDecimal("5.00")), "manayga",
+                null, 10)).extracting(stored -> stored.item().id()).containsExactly("4", "3");
+    }
+
+    @Test
+    void exportWritesAllPagesAsOneArray() throws IOException {
+        store.upsert(1L, List.of(item("1", "12.50"), item("2", "3.00"), item("3", "4.00")),
+                Instant.parse("2025-09-27T10:00:00Z"));
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ResultExporter exporter = new ResultExporter(store, objectMapper, new ResultPagingProperties(100, 1000, 2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int written = exporter.writeJson(1L, PriceRange.of(null, null), null, out);
+
+        assertThat(written).isEqualTo(3);
+        JsonNode exported = objectMapper.readTree(out.toByteArray());
+        assertThat(exported).hasSize(3);
+        assertThat(exported.get(0).get("id").asText()).isEqualTo("3");
+        assertThat(exported.get(2).get("firstSeen").asText()).isEqualTo("2025-09-27T10:00:00Z");
+    }
+
+    private SearchResultItem item(String id, String price) {
+        return new SearchResultItem(id, "Dragon Ball " + id, "https://manayga.de/products/" + id,
+                new BigDecimal(price), "Manayga", Instant.parse("2025-09-27T09:00:00Z"), "manayga");
+    }
+}
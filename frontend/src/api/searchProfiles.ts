@@ -29,7 +29,19 @@ const searchResultSchema = z.object({
         publishedAt: z.string().nullish()
       })
     )
-    .default([])
+    .default([]),
+  marketplaces: z
+    .array(
+      z.object({
+        marketplaceId: z.string(),
+        status: z.enum(["OK", "TIMED_OUT", "FAILED"]),
+        durationMillis: z.number(),
+        itemCount: z.number(),
+        error: z.string().nullish()
+      })
+    )
+    .default([]),
+  newItemCount: z.number().default(0)
 });
 
 export async function listSearchProfiles(): Promise<SearchProfile[]> {
@@ -78,6 +90,10 @@ export async function executeSearch(id: number): Promise<SearchResult> {
       price: item.price ?? undefined,
       location: item.location ?? undefined,
       publishedAt: item.publishedAt ?? undefined
+    })),
+    marketplaces: parsed.marketplaces.map((status) => ({
+      ...status,
+      error: status.error ?? undefined
     }))
   };
 }
@@ -40,7 +40,17 @@ export function SearchExecutionPanel({ profile, onExecute, onEdit, result, execu
         Intervall {profile.frequencyMinutes} min | Marktplatz {profile.marketplaceId}
       </p>
       {isSameResult ? (
-        <p className="muted">Letzte Ausfuehrung: {new Date(result!.executedAt).toLocaleString()}</p>
+        <>
+          <p className="muted">Letzte Ausfuehrung: {new Date(result!.executedAt).toLocaleString()}</p>
+          <ul className="muted">
+            {result!.marketplaces.map((status) => (
+              <li key={status.marketplaceId}>
+                {status.marketplaceId}: {status.status} ({status.itemCount} Treffer, {status.durationMillis} ms)
+                {status.error && ` - ${status.error}`}
+              </li>
+            ))}
+          </ul>
+        </>
       ) : (
         <p className="muted">Noch keine manuelle Ausfuehrung fuer dieses Profil.</p>
       )}
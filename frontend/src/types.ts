@@ -28,8 +28,18 @@ export type SearchResultItem = {
   publishedAt?: string;
 };
 
+export type MarketplaceStatus = {
+  marketplaceId: string;
+  status: "OK" | "TIMED_OUT" | "FAILED";
+  durationMillis: number;
+  itemCount: number;
+  error?: string;
+};
+
 export type SearchResult = {
   searchProfileId: number;
   executedAt: string;
   items: SearchResultItem[];
+  marketplaces: MarketplaceStatus[];
+  newItemCount: number;
 };